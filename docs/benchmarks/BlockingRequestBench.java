@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// Synthetic model of one request: blocking work outside the database (upload streaming, slow clients)
+// followed by a short DB section behind a 32-permit semaphore, the same bound DatabaseBulkhead sets.
+// Run with JDK 21: java docs/benchmarks/BlockingRequestBench.java
+public class BlockingRequestBench {
+
+    private static final int REQUESTS = 20_000;
+    private static final int DB_PERMITS = 32;
+    private static final int TOMCAT_THREADS = 200;
+
+    public static void main(String[] args) throws Exception {
+        for (long[] scenario : new long[][]{{200, 5}, {0, 5}}) {
+            long ioMillis = scenario[0];
+            long dbMillis = scenario[1];
+            System.out.printf("scenario: %d ms outside the DB, %d ms inside, %d requests at once%n",
+                    ioMillis, dbMillis, REQUESTS);
+            run("platform pool of " + TOMCAT_THREADS, Executors.newFixedThreadPool(TOMCAT_THREADS), ioMillis, dbMillis);
+            run("virtual threads", Executors.newVirtualThreadPerTaskExecutor(), ioMillis, dbMillis);
+        }
+    }
+
+    private static void run(String name, ExecutorService executor, long ioMillis, long dbMillis) throws Exception {
+        Semaphore db = new Semaphore(DB_PERMITS, true);
+        long[] latencies = new long[REQUESTS];
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            long submitted = System.nanoTime();
+            futures.add(executor.submit(() -> {
+                sleep(ioMillis);
+                db.acquireUninterruptibly();
+                try {
+                    sleep(dbMillis);
+                } finally {
+                    db.release();
+                }
+                latencies[index] = System.nanoTime() - submitted;
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("  %-22s %7.0f req/s   p50 %6d ms   p99 %6d ms%n",
+                name,
+                REQUESTS / (elapsed / 1e9),
+                latencies[REQUESTS / 2] / 1_000_000,
+                latencies[REQUESTS * 99 / 100] / 1_000_000);
+    }
+
+    private static void sleep(long millis) {
+        if (millis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.example.gameforum.auth;
 
 import com.example.gameforum.auth.dto.AuthResponse;
 import com.example.gameforum.auth.dto.LoginRequest;
+import com.example.gameforum.auth.dto.RefreshRequest;
 import com.example.gameforum.auth.dto.RegisterRequest;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,21 +16,40 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService auth;
+    private final RefreshTokenService refreshTokens;
+    private final LoginThrottle throttle;
 
-    public AuthController(AuthService auth) {
+    public AuthController(AuthService auth, RefreshTokenService refreshTokens, LoginThrottle throttle) {
         this.auth = auth;
+        this.refreshTokens = refreshTokens;
+        this.throttle = throttle;
     }
 
+    // getRemoteAddr() is the client resolved from X-Forwarded-For by Tomcat's RemoteIpValve (server.forward-headers-strategy),
+    // so one shared proxy address never puts every visitor into the same bucket
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest req) {
+    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest req, HttpServletRequest request) {
+        throttle.checkRegister(request.getRemoteAddr());
         return ResponseEntity.ok(auth.register(req));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest req) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest req, HttpServletRequest request) {
+        throttle.checkLogin(req.login(), request.getRemoteAddr());
         return ResponseEntity.ok(auth.login(req));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest req) {
+        return ResponseEntity.ok(refreshTokens.refresh(req.refreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshRequest req) {
+        refreshTokens.revoke(req.refreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/check-username")
     public ResponseEntity<Map<String, Boolean>> checkUsername(@RequestParam String username) {
         return ResponseEntity.ok(Map.of("available", auth.isUsernameAvailable(username)));
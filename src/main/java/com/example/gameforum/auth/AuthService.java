@@ -7,7 +7,6 @@ import com.example.gameforum.user.UserEntity;
 import com.example.gameforum.user.UserRepository;
 import com.example.gameforum.user.UserRole;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
@@ -16,13 +15,13 @@ import java.time.OffsetDateTime;
 public class AuthService {
 
     private final UserRepository users;
-    private final PasswordEncoder encoder;
-    private final JwtService jwt;
+    private final PasswordHasher passwords;
+    private final RefreshTokenService refreshTokens;
 
-    public AuthService(UserRepository users, PasswordEncoder encoder, JwtService jwt) {
+    public AuthService(UserRepository users, PasswordHasher passwords, RefreshTokenService refreshTokens) {
         this.users = users;
-        this.encoder = encoder;
-        this.jwt = jwt;
+        this.passwords = passwords;
+        this.refreshTokens = refreshTokens;
     }
 
     public AuthResponse register(RegisterRequest req) {
@@ -36,15 +35,14 @@ public class AuthService {
         UserEntity u = UserEntity.builder()
                 .username(req.username().trim())
                 .email(req.email().trim().toLowerCase())
-                .passwordHash(encoder.encode(req.password()))
+                .passwordHash(passwords.encode(req.password()))
                 .role(UserRole.USER)
                 .createdAt(OffsetDateTime.now())
                 .build();
 
         u = users.save(u);
 
-        String token = jwt.generateToken(u.getId(), u.getUsername(), u.getRole());
-        return new AuthResponse(token);
+        return refreshTokens.issue(u);
     }
 
     public AuthResponse login(LoginRequest req) {
@@ -54,12 +52,11 @@ public class AuthService {
                 .or(() -> users.findByEmail(login.toLowerCase()))
                 .orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
 
-        if (!encoder.matches(req.password(), u.getPasswordHash())) {
+        if (!passwords.matches(req.password(), u.getPasswordHash())) {
             throw new IllegalArgumentException("Invalid credentials");
         }
 
-        String token = jwt.generateToken(u.getId(), u.getUsername(), u.getRole());
-        return new AuthResponse(token);
+        return refreshTokens.issue(u);
     }
 
     public boolean isUsernameAvailable(String username) {
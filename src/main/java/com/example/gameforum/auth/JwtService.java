@@ -1,6 +1,7 @@
 package com.example.gameforum.auth;
 
 import com.example.gameforum.user.UserRole;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +19,8 @@ public class JwtService {
     private final SecretKey key;
     private final String issuer;
     private final long ttlSeconds;
+    // parsers are immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
 
     public JwtService(
             @Value("${app.security.jwt.secret}") String secret,
@@ -30,6 +33,10 @@ public class JwtService {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.issuer = issuer;
         this.ttlSeconds = ttlMinutes * 60;
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .requireIssuer(issuer)
+                .build();
     }
 
     public String generateToken(Long userId, String username, UserRole role) {
@@ -50,11 +57,7 @@ public class JwtService {
     }
 
     public io.jsonwebtoken.Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .requireIssuer(issuer)
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload();
     }
 }
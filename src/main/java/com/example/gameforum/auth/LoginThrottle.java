@@ -0,0 +1,76 @@
+package com.example.gameforum.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// token buckets per client IP and per login name; each bucket locks only itself, so unrelated clients never contend
+@Component
+public class LoginThrottle {
+
+    private static final long MAX_TRACKED_KEYS = 100_000;
+
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_KEYS)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    private final int perIpPerMinute;
+    private final int perLoginPerMinute;
+
+    public LoginThrottle(
+            @Value("${app.security.login-throttle.per-ip-per-minute}") int perIpPerMinute,
+            @Value("${app.security.login-throttle.per-login-per-minute}") int perLoginPerMinute
+    ) {
+        this.perIpPerMinute = perIpPerMinute;
+        this.perLoginPerMinute = perLoginPerMinute;
+    }
+
+    public void checkLogin(String login, String clientIp) {
+        acquire("ip:" + clientIp, perIpPerMinute);
+        if (login != null) {
+            acquire("login:" + login.trim().toLowerCase(Locale.ROOT), perLoginPerMinute);
+        }
+    }
+
+    public void checkRegister(String clientIp) {
+        acquire("ip:" + clientIp, perIpPerMinute);
+    }
+
+    private void acquire(String key, int perMinute) {
+        TokenBucket bucket = buckets.get(key, ignored -> new TokenBucket(perMinute));
+        if (!bucket.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many attempts, try again later");
+        }
+    }
+
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(int perMinute) {
+            this.capacity = perMinute;
+            this.refillPerNano = perMinute / (double) Duration.ofMinutes(1).toNanos();
+            this.tokens = perMinute;
+            this.refilledAt = System.nanoTime();
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
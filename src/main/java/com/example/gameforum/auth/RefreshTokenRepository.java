@@ -0,0 +1,26 @@
+package com.example.gameforum.auth;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, Long> {
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    // the conditional update lets exactly one of two concurrent refreshes with the same token win
+    @Modifying
+    @Query("update RefreshTokenEntity t set t.revokedAt = :at where t.id = :id and t.revokedAt is null")
+    int revoke(@Param("id") Long id, @Param("at") OffsetDateTime at);
+
+    @Modifying
+    @Query("update RefreshTokenEntity t set t.revokedAt = :at where t.userId = :userId and t.revokedAt is null")
+    int revokeAllForUser(@Param("userId") Long userId, @Param("at") OffsetDateTime at);
+
+    @Modifying
+    @Query("delete from RefreshTokenEntity t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,141 @@
+package com.example.gameforum.auth;
+
+import com.example.gameforum.auth.dto.AuthResponse;
+import com.example.gameforum.user.UserEntity;
+import com.example.gameforum.user.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+// opaque, rotating refresh tokens: renewing a session is a hash lookup instead of a BCrypt check
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository tokens;
+    private final UserRepository users;
+    private final JwtService jwt;
+    private final long ttlDays;
+    private final SecureRandom random = new SecureRandom();
+    // recently revoked hash -> owner, so a replay skips the token lookup; entries outlive the token itself
+    private final Cache<String, Long> revokedOwners;
+
+    public RefreshTokenService(
+            RefreshTokenRepository tokens,
+            UserRepository users,
+            JwtService jwt,
+            @Value("${app.security.refresh-token.ttl-days}") long ttlDays,
+            @Value("${app.security.refresh-token.revoked-cache-size}") long revokedCacheSize
+    ) {
+        this.tokens = tokens;
+        this.users = users;
+        this.jwt = jwt;
+        this.ttlDays = ttlDays;
+        this.revokedOwners = Caffeine.newBuilder()
+                .maximumSize(revokedCacheSize)
+                .expireAfterWrite(Duration.ofDays(ttlDays))
+                .build();
+    }
+
+    @Transactional
+    public AuthResponse issue(UserEntity user) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        random.nextBytes(raw);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+
+        OffsetDateTime now = OffsetDateTime.now();
+        tokens.save(RefreshTokenEntity.builder()
+                .userId(user.getId())
+                .tokenHash(hash(refreshToken))
+                .createdAt(now)
+                .expiresAt(now.plusDays(ttlDays))
+                .build());
+
+        String accessToken = jwt.generateToken(user.getId(), user.getUsername(), user.getRole());
+        return new AuthResponse(accessToken, refreshToken);
+    }
+
+    // the reuse branch revokes the user's other tokens, so it must commit despite the 401
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public AuthResponse refresh(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        OffsetDateTime now = OffsetDateTime.now();
+        Long revokedOwner = revokedOwners.getIfPresent(tokenHash);
+        if (revokedOwner != null) {
+            throw reuseDetected(revokedOwner, now);
+        }
+
+        RefreshTokenEntity current = tokens.findByTokenHash(tokenHash)
+                .orElseThrow(this::invalidToken);
+
+        if (current.getRevokedAt() != null) {
+            revokedOwners.put(tokenHash, current.getUserId());
+            throw reuseDetected(current.getUserId(), now);
+        }
+        if (current.getExpiresAt().isBefore(now) || tokens.revoke(current.getId(), now) == 0) {
+            throw invalidToken();
+        }
+        revokedOwners.put(tokenHash, current.getUserId());
+
+        UserEntity user = users.findById(current.getUserId())
+                .orElseThrow(this::invalidToken);
+        return issue(user);
+    }
+
+    @Transactional
+    public void revoke(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        tokens.findByTokenHash(tokenHash).ifPresent(token -> {
+            tokens.revoke(token.getId(), OffsetDateTime.now());
+            revokedOwners.put(tokenHash, token.getUserId());
+        });
+    }
+
+    @Scheduled(cron = "${app.security.refresh-token.cleanup-cron}")
+    @Transactional
+    public void deleteExpired() {
+        OffsetDateTime now = OffsetDateTime.now();
+        int deleted = tokens.deleteExpired(now);
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    // a revoked token came back: assume it leaked and end every session of that user
+    private ResponseStatusException reuseDetected(Long userId, OffsetDateTime now) {
+        int ended = tokens.revokeAllForUser(userId, now);
+        log.warn("Refresh token reuse for user {}, revoked {} active tokens", userId, ended);
+        return invalidToken();
+    }
+
+    private ResponseStatusException invalidToken() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
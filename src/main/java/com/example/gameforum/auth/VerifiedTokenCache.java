@@ -0,0 +1,99 @@
+package com.example.gameforum.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// a page fires several API calls with the same bearer token; only the first one pays for signature check and claim decoding
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwt;
+    // keyed by the token's SHA-256 so raw tokens are not kept in memory
+    private final Cache<String, VerifiedToken> verified;
+
+    public VerifiedTokenCache(
+            JwtService jwt,
+            @Value("${app.security.jwt.verified-cache-size}") long maximumSize
+    ) {
+        this.jwt = jwt;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public VerifiedToken verify(String token) {
+        return verified.get(hash(token), ignored -> parse(token));
+    }
+
+    public void invalidate(String token) {
+        verified.invalidate(hash(token));
+    }
+
+    public CacheStats stats() {
+        return verified.stats();
+    }
+
+    public long estimatedSize() {
+        return verified.estimatedSize();
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = jwt.parseClaims(token);
+        String role = claims.get("role", String.class);
+        return new VerifiedToken(
+                claims.get("username", String.class),
+                List.of(new SimpleGrantedAuthority("ROLE_" + role)),
+                claims.getExpiration() == null ? Instant.MAX : claims.getExpiration().toInstant()
+        );
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record VerifiedToken(String username, List<GrantedAuthority> authorities, Instant expiresAt) {
+    }
+
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            if (value.expiresAt().equals(Instant.MAX)) {
+                return Long.MAX_VALUE;
+            }
+            long millisLeft = value.expiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
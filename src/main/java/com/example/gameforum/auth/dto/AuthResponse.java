@@ -1,3 +1,3 @@
 package com.example.gameforum.auth.dto;
 
-public record AuthResponse(String accessToken) {}
+public record AuthResponse(String accessToken, String refreshToken) {}
@@ -0,0 +1,42 @@
+package com.example.gameforum.common;
+
+import com.example.gameforum.auth.VerifiedTokenCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+public class AdminCacheController {
+
+    private final CacheManager cacheManager;
+    private final VerifiedTokenCache verifiedTokens;
+
+    public AdminCacheController(CacheManager cacheManager, VerifiedTokenCache verifiedTokens) {
+        this.cacheManager = cacheManager;
+        this.verifiedTokens = verifiedTokens;
+    }
+
+    @GetMapping
+    public Map<String, CacheStatsView> stats() {
+        Map<String, CacheStatsView> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                result.put(name, toView(nativeCache.estimatedSize(), nativeCache.stats()));
+            }
+        }
+        result.put("verifiedJwt", toView(verifiedTokens.estimatedSize(), verifiedTokens.stats()));
+        return result;
+    }
+
+    private CacheStatsView toView(long size, CacheStats stats) {
+        return new CacheStatsView(size, stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    public record CacheStatsView(long size, long hits, long misses, double hitRate, long evictions) {}
+}
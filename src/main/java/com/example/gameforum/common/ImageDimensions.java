@@ -0,0 +1,4 @@
+package com.example.gameforum.common;
+
+public record ImageDimensions(int width, int height) {
+}
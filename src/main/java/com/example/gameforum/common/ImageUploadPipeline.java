@@ -0,0 +1,190 @@
+package com.example.gameforum.common;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+
+// one path for every image upload: sniff the real format, stream to a temp file, stop at the limit, move into place atomically.
+// files are named by the SHA-256 of their bytes, so a re-posted image reuses the stored copy and never changes afterwards
+@Component
+public class ImageUploadPipeline {
+
+    private static final int HEADER_BYTES = 12;
+    private static final int BUFFER_BYTES = 16 * 1024;
+    // next to data/uploads (same file system for the atomic move) but outside the public /uploads mapping
+    static final Path INCOMING_DIR = Paths.get("data", "uploads-incoming")
+            .toAbsolutePath()
+            .normalize();
+
+    private final StoredFileRepository files;
+
+    public ImageUploadPipeline(StoredFileRepository files) {
+        this.files = files;
+    }
+
+    public StoredUpload store(MultipartFile file, Path directory, String urlPrefix, long maxBytes) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Файл не выбран");
+        }
+        if (file.getSize() > maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+        try {
+            return store(file.getInputStream(), directory, urlPrefix, maxBytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось сохранить изображение", e);
+        }
+    }
+
+    // urlPrefix is where the directory is served, e.g. /uploads/forum/
+    public StoredUpload store(InputStream input, Path directory, String urlPrefix, long maxBytes) {
+        Path temp = null;
+        try (InputStream in = input) {
+            byte[] header = in.readNBytes(HEADER_BYTES);
+            if (header.length == 0) {
+                throw new IllegalArgumentException("Файл не выбран");
+            }
+            ImageFormat format = ImageFormat.sniff(header)
+                    .orElseThrow(() -> new IllegalArgumentException("Разрешены только изображения"));
+
+            Files.createDirectories(INCOMING_DIR);
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(INCOMING_DIR, "upload-", ".part");
+
+            MessageDigest sha256 = newSha256();
+            long written;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), sha256)) {
+                out.write(header);
+                written = header.length;
+                byte[] buffer = new byte[BUFFER_BYTES];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    written += read;
+                    if (written > maxBytes) {
+                        throw tooLarge(maxBytes);
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            String fileName = HexFormat.of().formatHex(sha256.digest()) + format.extension();
+            Path target = directory.resolve(fileName).normalize();
+            boolean created = !refresh(target);
+            if (created) {
+                // a concurrent upload of the same bytes may win the rename; replacing identical content is harmless
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                temp = null;
+            }
+
+            String url = urlPrefix + fileName;
+            files.registerIfAbsent(url, written);
+            // the collector may have deleted the reused file after refresh(); this upload still holds the same bytes
+            if (!created && !Files.exists(target)) {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                temp = null;
+            }
+            return new StoredUpload(url, written, created);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось сохранить изображение", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    // a fresh mtime puts the reused file back inside the garbage collector's grace period; false when there is no file yet
+    private boolean refresh(Path target) throws IOException {
+        try {
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private IllegalArgumentException tooLarge(long maxBytes) {
+        return new IllegalArgumentException("Файл слишком большой (максимум " + maxBytes / (1024 * 1024) + " MB)");
+    }
+
+    private void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+            // a leftover .part file stays in the incoming directory, which is never served
+        }
+    }
+
+    // created is false when identical bytes were already stored
+    public record StoredUpload(String url, long sizeBytes, boolean created) {
+    }
+
+    enum ImageFormat {
+        JPEG(".jpg"),
+        PNG(".png"),
+        GIF(".gif"),
+        WEBP(".webp"),
+        BMP(".bmp");
+
+        private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+        private final String extension;
+
+        ImageFormat(String extension) {
+            this.extension = extension;
+        }
+
+        String extension() {
+            return extension;
+        }
+
+        static Optional<ImageFormat> sniff(byte[] header) {
+            if (startsWith(header, 0, (byte) 0xFF, (byte) 0xD8, (byte) 0xFF)) {
+                return Optional.of(JPEG);
+            }
+            if (startsWith(header, 0, PNG_SIGNATURE)) {
+                return Optional.of(PNG);
+            }
+            if (startsWith(header, 0, "GIF87a".getBytes()) || startsWith(header, 0, "GIF89a".getBytes())) {
+                return Optional.of(GIF);
+            }
+            if (startsWith(header, 0, "RIFF".getBytes()) && startsWith(header, 8, "WEBP".getBytes())) {
+                return Optional.of(WEBP);
+            }
+            if (startsWith(header, 0, "BM".getBytes())) {
+                return Optional.of(BMP);
+            }
+            return Optional.empty();
+        }
+
+        private static boolean startsWith(byte[] data, int offset, byte... prefix) {
+            return data.length >= offset + prefix.length
+                    && Arrays.equals(data, offset, offset + prefix.length, prefix, 0, prefix.length);
+        }
+    }
+}
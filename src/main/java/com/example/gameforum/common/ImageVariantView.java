@@ -0,0 +1,4 @@
+package com.example.gameforum.common;
+
+public record ImageVariantView(int width, String url) {
+}
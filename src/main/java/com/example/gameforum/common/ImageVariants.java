@@ -0,0 +1,374 @@
+package com.example.gameforum.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// downscaled copies (name-w480.jpg next to name.jpg) built in the background; until they exist clients get the original
+@Component
+public class ImageVariants {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariants.class);
+    private static final int[] WIDTHS = {128, 480, 1280};
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+    private static final String UPLOADS_URL_PREFIX = "/uploads/";
+    private static final Pattern VARIANT_NAME = Pattern.compile(".+-w\\d+\\.(jpg|png)");
+    private static final int JPEG_SOI = 0xFFD8;
+    private static final int JPEG_APP1 = 0xFFE1;
+    private static final int JPEG_SOS = 0xFFDA;
+    private static final int JPEG_EOI = 0xFFD9;
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+    private static final Path UPLOADS_ROOT = Paths.get("data", "uploads")
+            .toAbsolutePath()
+            .normalize();
+
+    private final ThreadPoolExecutor executor;
+    // url of the original -> variants found on disk, so rendering a thread never stats files
+    private final Cache<String, List<ImageVariantView>> known = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .build();
+
+    public ImageVariants(
+            @Value("${app.uploads.variants.threads}") int threads,
+            @Value("${app.uploads.variants.queue-capacity}") int queueCapacity
+    ) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "image-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public void generate(String url) {
+        Path original = resolveLocal(url);
+        if (original == null || outputFormat(original) == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> generateNow(url, original));
+        } catch (RejectedExecutionException e) {
+            // under a burst the upload still succeeds, the image is just served at full size
+            log.warn("Image variant queue is full, skipping {}", url);
+        }
+    }
+
+    public List<ImageVariantView> variantsFor(String url) {
+        Path original = resolveLocal(url);
+        if (original == null) {
+            return List.of();
+        }
+        return known.get(url, ignored -> scan(url, original));
+    }
+
+    // header-only read: the decoder reports the displayed size (after EXIF rotation) without decoding any pixels
+    public ImageDimensions readDimensions(String url) {
+        Path original = resolveLocal(url);
+        if (original == null || !Files.isRegularFile(original)) {
+            return null;
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return swapsAxes(exifOrientation(original))
+                        ? new ImageDimensions(reader.getHeight(0), reader.getWidth(0))
+                        : new ImageDimensions(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void deleteVariants(String url) throws IOException {
+        Path original = resolveLocal(url);
+        if (original == null) {
+            return;
+        }
+        for (int width : WIDTHS) {
+            Files.deleteIfExists(variantPath(original, width));
+        }
+        known.invalidate(url);
+    }
+
+    // name-w480.jpg and friends; the collector removes them together with their original
+    public boolean isVariant(Path file) {
+        return VARIANT_NAME.matcher(file.getFileName().toString()).matches();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void generateNow(String url, Path original) {
+        String format = outputFormat(original);
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int orientation = exifOrientation(original);
+                // widths below are the displayed ones: a rotated phone photo is as wide as it is stored high
+                int width = swapsAxes(orientation) ? reader.getHeight(0) : reader.getWidth(0);
+                int height = swapsAxes(orientation) ? reader.getWidth(0) : reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS || width <= WIDTHS[0]) {
+                    return;
+                }
+
+                // decode huge photos at a fraction of their size: the largest variant needs at most 2x its width
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / (WIDTHS[WIDTHS.length - 1] * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                // ImageIO ignores EXIF Orientation, the re-encoded variants carry no EXIF: rotate the pixels instead
+                BufferedImage source = orient(reader.read(0, param), orientation, format);
+
+                List<ImageVariantView> created = new ArrayList<>();
+                BufferedImage current = source;
+                for (int i = WIDTHS.length - 1; i >= 0; i--) {
+                    int targetWidth = WIDTHS[i];
+                    if (targetWidth >= width) {
+                        continue;
+                    }
+                    // each smaller variant is scaled from the previous one, which is cheaper and sharper
+                    current = scale(current, targetWidth, format);
+                    Path target = variantPath(original, targetWidth);
+                    write(current, format, target);
+                    created.add(0, new ImageVariantView(targetWidth, variantUrl(url, targetWidth)));
+                }
+                known.put(url, List.copyOf(created));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to build image variants for {}", url, e);
+        }
+    }
+
+    // EXIF Orientation of a JPEG (1..8), 1 when absent or unreadable. The markers are walked by hand:
+    // ImageIO's JPEG metadata rejects files whose JFIF APP0 comes after the EXIF APP1
+    private static int exifOrientation(Path file) {
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (data.readUnsignedShort() != JPEG_SOI) {
+                return 1;
+            }
+            while (true) {
+                int marker = data.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == JPEG_SOS || marker == JPEG_EOI) {
+                    return 1;
+                }
+                int length = data.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return 1;
+                }
+                if (marker == JPEG_APP1) {
+                    int orientation = readOrientation(data.readNBytes(length));
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                } else {
+                    data.skipNBytes(length);
+                }
+            }
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    // APP1 payload: "Exif\0\0", then a TIFF header and IFD0, whose entries are 12 bytes each
+    private static int readOrientation(byte[] app1) {
+        byte[] exifHeader = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+        if (app1.length < exifHeader.length + 8
+                || !Arrays.equals(app1, 0, exifHeader.length, exifHeader, 0, exifHeader.length)) {
+            return 0;
+        }
+        try {
+            ByteBuffer tiff = ByteBuffer.wrap(app1, exifHeader.length, app1.length - exifHeader.length).slice();
+            tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            int ifd = tiff.getInt(4);
+            int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if (Short.toUnsignedInt(tiff.getShort(entry)) == EXIF_ORIENTATION_TAG) {
+                    int value = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                    return value >= 1 && value <= 8 ? value : 0;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // truncated or malformed EXIF: treat as no orientation
+        }
+        return 0;
+    }
+
+    // orientations 5..8 turn the image by a quarter, so the displayed width is the stored height
+    private static boolean swapsAxes(int orientation) {
+        return orientation >= 5 && orientation <= 8;
+    }
+
+    private BufferedImage orient(BufferedImage source, int orientation, String format) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return source;
+        }
+
+        int type = "png".equals(format) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage oriented = swapsAxes(orientation)
+                ? new BufferedImage(h, w, type)
+                : new BufferedImage(w, h, type);
+        Graphics2D g = oriented.createGraphics();
+        try {
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    private BufferedImage scale(BufferedImage source, int targetWidth, String format) {
+        int type = "png".equals(format) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+
+        // halving steps keep bilinear filtering from skipping pixels on large reductions
+        while (currentWidth > targetWidth) {
+            int nextWidth = Math.max(targetWidth, currentWidth / 2);
+            int nextHeight = Math.max(1, (int) Math.round((double) currentHeight * nextWidth / currentWidth));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+            currentWidth = nextWidth;
+            currentHeight = nextHeight;
+        }
+        return current;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Files.createDirectories(ImageUploadPipeline.INCOMING_DIR);
+        Path temp = Files.createTempFile(ImageUploadPipeline.INCOMING_DIR, "variant-", ".part");
+        try {
+            if (!ImageIO.write(image, format, temp.toFile())) {
+                throw new IOException("No ImageIO writer for " + format);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private List<ImageVariantView> scan(String url, Path original) {
+        List<ImageVariantView> found = new ArrayList<>();
+        for (int width : WIDTHS) {
+            if (Files.exists(variantPath(original, width))) {
+                found.add(new ImageVariantView(width, variantUrl(url, width)));
+            }
+        }
+        return List.copyOf(found);
+    }
+
+    // PNG keeps transparency; JPEG and BMP become JPEG. GIF (animation) and WebP (no JDK codec) stay as uploaded
+    private String outputFormat(Path original) {
+        String name = original.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".png")) {
+            return "png";
+        }
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".bmp")) {
+            return "jpg";
+        }
+        return null;
+    }
+
+    private Path resolveLocal(String url) {
+        if (url == null || !url.startsWith(UPLOADS_URL_PREFIX)) {
+            return null;
+        }
+        Path path = UPLOADS_ROOT.resolve(url.substring(UPLOADS_URL_PREFIX.length())).normalize();
+        return path.startsWith(UPLOADS_ROOT) ? path : null;
+    }
+
+    private Path variantPath(Path original, int width) {
+        return original.resolveSibling(variantName(original.getFileName().toString(), width));
+    }
+
+    private String variantUrl(String url, int width) {
+        int slash = url.lastIndexOf('/');
+        return url.substring(0, slash + 1) + variantName(url.substring(slash + 1), width);
+    }
+
+    private String variantName(String fileName, int width) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        String extension = dot > 0 && fileName.substring(dot).equalsIgnoreCase(".png") ? ".png" : ".jpg";
+        return base + "-w" + width + extension;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.gameforum.common;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "stored_files")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredFileEntity {
+
+    @Id
+    @Column(length = 255)
+    private String url;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "last_referenced_at")
+    private OffsetDateTime lastReferencedAt;
+}
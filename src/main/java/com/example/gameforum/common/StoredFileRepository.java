@@ -0,0 +1,49 @@
+package com.example.gameforum.common;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+public interface StoredFileRepository extends JpaRepository<StoredFileEntity, String> {
+
+    // uploads run outside a service transaction, so this one carries its own
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO stored_files (url, size_bytes, ref_count, created_at)
+        VALUES (:url, :sizeBytes, 0, now())
+        ON CONFLICT (url) DO NOTHING
+    """, nativeQuery = true)
+    int registerIfAbsent(@Param("url") String url, @Param("sizeBytes") long sizeBytes);
+
+    @Modifying
+    @Query(value = """
+        UPDATE stored_files
+        SET ref_count = ref_count + 1, last_referenced_at = now()
+        WHERE url IN (:urls)
+    """, nativeQuery = true)
+    int retain(@Param("urls") Collection<String> urls);
+
+    @Modifying
+    @Query(value = """
+        UPDATE stored_files
+        SET ref_count = GREATEST(ref_count - 1, 0)
+        WHERE url IN (:urls)
+    """, nativeQuery = true)
+    int release(@Param("urls") Collection<String> urls);
+
+    // a count left above zero by a cascade is ignored once the last reference is older than the grace period
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM stored_files
+        WHERE url = :url
+          AND (ref_count = 0 OR last_referenced_at IS NULL OR last_referenced_at < :cutoff)
+    """, nativeQuery = true)
+    int deleteIfCollectable(@Param("url") String url, @Param("cutoff") OffsetDateTime cutoff);
+}
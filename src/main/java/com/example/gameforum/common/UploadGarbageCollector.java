@@ -0,0 +1,200 @@
+package com.example.gameforum.common;
+
+import com.example.gameforum.profile.UserProfileStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// mark-and-sweep over data/uploads: mark every URL a message or profile uses, then delete unmarked files past the grace period.
+// both phases work in small batches with pauses so the disk and the database stay available to requests
+@Component
+public class UploadGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadGarbageCollector.class);
+    private static final String UPLOADS_URL_PREFIX = "/uploads/";
+    private static final Path UPLOADS_ROOT = Paths.get("data", "uploads")
+            .toAbsolutePath()
+            .normalize();
+    private static final List<String> COLLECTED_DIRS = List.of("forum", "profile");
+    private static final int MARK_PAGE_SIZE = 1000;
+
+    private final Path uploadsRoot;
+    private final JdbcTemplate jdbc;
+    private final UserProfileStore profiles;
+    private final StoredFileRepository files;
+    private final ImageVariants variants;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxDeletesPerRun;
+    private final AtomicBoolean running = new AtomicBoolean();
+    // the run sleeps between batches on purpose: it gets its own thread instead of the shared scheduler
+    // that also drives the counter flushes, SSE keep-alives and STOMP heartbeats
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "upload-gc");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    @Autowired
+    public UploadGarbageCollector(
+            JdbcTemplate jdbc,
+            UserProfileStore profiles,
+            StoredFileRepository files,
+            ImageVariants variants,
+            @Value("${app.uploads.gc.grace-period-hours}") long gracePeriodHours,
+            @Value("${app.uploads.gc.batch-size}") int batchSize,
+            @Value("${app.uploads.gc.pause-ms}") long pauseMillis,
+            @Value("${app.uploads.gc.max-deletes-per-run}") int maxDeletesPerRun
+    ) {
+        this(UPLOADS_ROOT, jdbc, profiles, files, variants, gracePeriodHours, batchSize, pauseMillis, maxDeletesPerRun);
+    }
+
+    // tests point the collector at a temporary directory
+    UploadGarbageCollector(
+            Path uploadsRoot,
+            JdbcTemplate jdbc,
+            UserProfileStore profiles,
+            StoredFileRepository files,
+            ImageVariants variants,
+            long gracePeriodHours,
+            int batchSize,
+            long pauseMillis,
+            int maxDeletesPerRun
+    ) {
+        this.uploadsRoot = uploadsRoot;
+        this.jdbc = jdbc;
+        this.profiles = profiles;
+        this.files = files;
+        this.variants = variants;
+        this.gracePeriod = Duration.ofHours(gracePeriodHours);
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxDeletesPerRun = maxDeletesPerRun;
+    }
+
+    @Scheduled(cron = "${app.uploads.gc.cron}")
+    public void collect() {
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void run() {
+        try {
+            Set<String> marked = mark();
+            int deleted = sweep(marked);
+            log.info("Upload GC: {} referenced uploads, {} orphaned files deleted", marked.size(), deleted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | IOException e) {
+            log.warn("Upload GC run failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Set<String> mark() throws InterruptedException {
+        Set<String> marked = new HashSet<>();
+        // keyset pages over the url index keep each query short instead of holding one cursor open for the whole scan
+        String lastUrl = UPLOADS_URL_PREFIX;
+        while (true) {
+            List<String> page = jdbc.queryForList(
+                    "SELECT DISTINCT url FROM forum_message_images WHERE url > ? AND url LIKE '/uploads/%' ORDER BY url LIMIT ?",
+                    String.class,
+                    lastUrl,
+                    MARK_PAGE_SIZE
+            );
+            marked.addAll(page);
+            if (page.size() < MARK_PAGE_SIZE) {
+                break;
+            }
+            lastUrl = page.get(page.size() - 1);
+            pause();
+        }
+
+        profiles.findAvatarUrls().stream()
+                .filter(url -> url.startsWith(UPLOADS_URL_PREFIX))
+                .forEach(marked::add);
+        return marked;
+    }
+
+    private int sweep(Set<String> marked) throws IOException, InterruptedException {
+        Instant graceStart = Instant.now().minus(gracePeriod);
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(gracePeriod);
+        int examined = 0;
+        int deleted = 0;
+
+        for (String dir : COLLECTED_DIRS) {
+            Path root = uploadsRoot.resolve(dir);
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            // Files.list is lazy: one directory entry at a time, never the whole listing in memory
+            try (Stream<Path> entries = Files.list(root)) {
+                Iterator<Path> iterator = entries.iterator();
+                while (iterator.hasNext() && deleted < maxDeletesPerRun) {
+                    Path file = iterator.next();
+                    if (++examined % batchSize == 0) {
+                        pause();
+                    }
+                    if (!Files.isRegularFile(file) || variants.isVariant(file)) {
+                        continue;
+                    }
+
+                    String url = UPLOADS_URL_PREFIX + dir + "/" + file.getFileName();
+                    if (marked.contains(url) || Files.getLastModifiedTime(file).toInstant().isAfter(graceStart)) {
+                        continue;
+                    }
+                    // the row guards against a reference added after the mark phase
+                    if (files.deleteIfCollectable(url, cutoff) == 0 && files.existsById(url)) {
+                        continue;
+                    }
+                    // a deduplicated upload may have refreshed the file since the check above: give its row back
+                    if (Files.getLastModifiedTime(file).toInstant().isAfter(graceStart)) {
+                        files.registerIfAbsent(url, Files.size(file));
+                        continue;
+                    }
+
+                    variants.deleteVariants(url);
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private void pause() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.gameforum.common;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// counts how many messages and profiles point at each stored upload; zero-reference files are garbage
+@Component
+public class UploadReferences {
+
+    private static final String UPLOADS_URL_PREFIX = "/uploads/";
+
+    private final StoredFileRepository files;
+
+    public UploadReferences(StoredFileRepository files) {
+        this.files = files;
+    }
+
+    // a missing row means the collector has already taken the file: fail so the caller's transaction rolls back
+    public void retain(Collection<String> urls) {
+        Set<String> local = localUploads(urls);
+        if (!local.isEmpty() && files.retain(local) < local.size()) {
+            throw new IllegalArgumentException("Изображение не найдено, загрузите его заново");
+        }
+    }
+
+    public void release(Collection<String> urls) {
+        Set<String> local = localUploads(urls);
+        if (!local.isEmpty()) {
+            files.release(local);
+        }
+    }
+
+    // an edit only touches the images that were actually added or removed
+    public void replace(Collection<String> before, Collection<String> after) {
+        Set<String> added = localUploads(after);
+        added.removeAll(before);
+        Set<String> removed = localUploads(before);
+        removed.removeAll(after);
+        retain(added);
+        release(removed);
+    }
+
+    private Set<String> localUploads(Collection<String> urls) {
+        Set<String> local = new LinkedHashSet<>();
+        if (urls == null) {
+            return local;
+        }
+        for (String url : urls) {
+            if (url != null && url.startsWith(UPLOADS_URL_PREFIX)) {
+                local.add(url);
+            }
+        }
+        return local;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.gameforum.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// with virtual threads the thread pool no longer limits anything: API requests take a permit before they reach
+// the repositories, so at most `permits` of them compete for Hikari connections and the rest queue here cheaply.
+// permits stay below the pool size, leaving connections for the scheduled flushes
+@Component
+@ConditionalOnProperty(name = "app.db-bulkhead.enabled", havingValue = "true")
+public class DatabaseBulkhead implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    private static final String PERMIT_ATTRIBUTE = DatabaseBulkhead.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+    private final int maxWaiting;
+
+    public DatabaseBulkhead(
+            @Value("${app.db-bulkhead.permits}") int permits,
+            @Value("${app.db-bulkhead.max-wait-ms}") long maxWaitMillis,
+            @Value("${app.db-bulkhead.max-waiting}") int maxWaiting
+    ) {
+        this.permits = new Semaphore(permits, true);
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxWaiting = maxWaiting;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // the SSE stream holds its request open for minutes and touches the database only once
+        registry.addInterceptor(this)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/forum/topics/*/stream");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        // a queue longer than this cannot drain within max-wait anyway: shed the request right away
+        if (permits.getQueueLength() >= maxWaiting || !permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Сервер перегружен, повторите запрос позже");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+}
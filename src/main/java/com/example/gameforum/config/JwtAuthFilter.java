@@ -1,28 +1,25 @@
 package com.example.gameforum.config;
 
-import com.example.gameforum.auth.JwtService;
-import io.jsonwebtoken.Claims;
+import com.example.gameforum.auth.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtService jwt;
+    private final VerifiedTokenCache tokens;
 
-    public JwtAuthFilter(JwtService jwt) {
-        this.jwt = jwt;
+    public JwtAuthFilter(VerifiedTokenCache tokens) {
+        this.tokens = tokens;
     }
 
     @Override
@@ -37,14 +34,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String token = header.substring(7);
         try {
-            Claims claims = jwt.parseClaims(token);
-            String username = claims.get("username", String.class);
-            String role = claims.get("role", String.class);
+            VerifiedTokenCache.VerifiedToken verified = tokens.verify(token);
 
             var auth = new UsernamePasswordAuthenticationToken(
-                    username,
+                    verified.username(),
                     null,
-                    List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                    verified.authorities()
             );
             SecurityContextHolder.getContext().setAuthentication(auth);
 
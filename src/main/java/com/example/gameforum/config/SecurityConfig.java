@@ -66,6 +66,7 @@ public class SecurityConfig {
                                 "/img/**",
                                 "/images/**",
                                 "/uploads/**",
+                                "/ws/**",
                                 "/error",
                                 "/favicon.ico"
                         ).permitAll()
@@ -0,0 +1,62 @@
+package com.example.gameforum.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+// gzips css/js once at startup instead of on every response; the plain copy sits next to the .gz
+// because EncodedResourceResolver looks for the encoded file beside the one it resolved
+@Component
+public class StaticAssetPrecompressor {
+
+    private static final Logger log = LoggerFactory.getLogger(StaticAssetPrecompressor.class);
+    private static final String STATIC_ROOT = "classpath:/static/";
+    private static final String[] PATTERNS = {"classpath:/static/**/*.css", "classpath:/static/**/*.js"};
+
+    @PostConstruct
+    public void precompress() {
+        Path target = WebResourceConfig.PRECOMPRESSED_STATIC;
+        try {
+            // rebuilt on every start so a deploy never serves the previous release's files
+            FileSystemUtils.deleteRecursively(target);
+            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+            Resource root = resolver.getResource(STATIC_ROOT);
+            String rootUrl = root.getURL().toString();
+
+            int count = 0;
+            for (String pattern : PATTERNS) {
+                for (Resource resource : resolver.getResources(pattern)) {
+                    String relative = resource.getURL().toString().substring(rootUrl.length());
+                    Path plain = target.resolve(relative).normalize();
+                    if (!plain.startsWith(target)) {
+                        continue;
+                    }
+                    Files.createDirectories(plain.getParent());
+                    try (InputStream input = resource.getInputStream()) {
+                        Files.copy(input, plain);
+                    }
+                    try (InputStream input = Files.newInputStream(plain);
+                         OutputStream output = new GZIPOutputStream(Files.newOutputStream(plain.resolveSibling(plain.getFileName() + ".gz")))) {
+                        input.transferTo(output);
+                    }
+                    count++;
+                }
+            }
+            log.info("Precompressed {} static assets into {}", count, target);
+        } catch (IOException e) {
+            // the handler falls back to classpath:/static/ and serves the files uncompressed
+            log.warn("Failed to precompress static assets", e);
+        }
+    }
+}
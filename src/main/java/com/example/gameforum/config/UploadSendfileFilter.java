@@ -0,0 +1,68 @@
+package com.example.gameforum.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// hands upload bodies to Tomcat's sendfile: the kernel copies file -> socket and no request thread streams bytes.
+// anything sendfile cannot do (HEAD, ranges, connectors without support) goes on to the regular resource handler
+@Component
+public class UploadSendfileFilter extends OncePerRequestFilter {
+
+    private static final String UPLOADS_PREFIX = "/uploads/";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !pathOf(request).startsWith(UPLOADS_PREFIX)
+                || request.getHeader(HttpHeaders.RANGE) != null
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Path file = resolve(pathOf(request));
+        if (file == null || !Files.isRegularFile(file)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String fileName = file.getFileName().toString();
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, WebResourceConfig.IMMUTABLE.getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + fileName + "\"", lastModified)) {
+            return;
+        }
+
+        String contentType = request.getServletContext().getMimeType(fileName);
+        response.setContentType(contentType == null ? "application/octet-stream" : contentType);
+        response.setContentLengthLong(length);
+        request.setAttribute(SENDFILE_FILENAME, file.toString());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, length);
+    }
+
+    private String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private Path resolve(String path) {
+        Path file = WebResourceConfig.UPLOADS_ROOT.resolve(path.substring(UPLOADS_PREFIX.length())).normalize();
+        return file.startsWith(WebResourceConfig.UPLOADS_ROOT) ? file : null;
+    }
+}
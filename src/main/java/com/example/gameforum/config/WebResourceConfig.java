@@ -1,22 +1,71 @@
 package com.example.gameforum.config;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Configuration
 public class WebResourceConfig implements WebMvcConfigurer {
 
+    static final Path UPLOADS_ROOT = Paths.get("data", "uploads").toAbsolutePath().normalize();
+    static final Path PRECOMPRESSED_STATIC = Paths.get("data", "static-precompressed").toAbsolutePath().normalize();
+
+    // fingerprinted URLs (content hash in the name) may be kept for a year without revalidating
+    static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    // same policy as the unhashed covers under /img/**: a day, then a Last-Modified check
+    static final CacheControl REVALIDATED = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic();
+
+    // style-<md5>.css as written by the content VersionResourceResolver
+    private static final Pattern FINGERPRINTED = Pattern.compile("-[0-9a-f]{32}\\.[^/.]+$");
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // templates link /static/css/style-<md5>.css via @{...}; .gz copies next to the files are sent when accepted.
+        // no cache control here: StaticCacheControl picks it per request
         registry.addResourceHandler("/static/**")
-                .addResourceLocations("classpath:/static/");
+                .addResourceLocations(directoryLocation(PRECOMPRESSED_STATIC), "classpath:/static/")
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
 
-        Path uploadsRoot = Paths.get("data", "uploads").toAbsolutePath().normalize();
+        // uploads are written once under a SHA-256 (or, for old files, UUID) name and never overwritten
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(uploadsRoot.toUri().toString() + "/");
+                .addResourceLocations(directoryLocation(UPLOADS_ROOT))
+                .setCacheControl(IMMUTABLE)
+                .resourceChain(true);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StaticCacheControl()).addPathPatterns("/static/**");
+    }
+
+    // a plain /static/css/style.css (bookmark, hand-written link) must not outlive a deploy by a year
+    private static final class StaticCacheControl implements HandlerInterceptor {
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            CacheControl policy = FINGERPRINTED.matcher(request.getRequestURI()).find() ? IMMUTABLE : REVALIDATED;
+            response.setHeader(HttpHeaders.CACHE_CONTROL, policy.getHeaderValue());
+            return true;
+        }
+    }
+
+    // Path.toUri() only ends with '/' for directories that already exist
+    private static String directoryLocation(Path directory) {
+        String location = directory.toUri().toString();
+        return location.endsWith("/") ? location : location + "/";
     }
 }
@@ -0,0 +1,79 @@
+package com.example.gameforum.config;
+
+import com.example.gameforum.auth.VerifiedTokenCache;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final VerifiedTokenCache tokens;
+
+    public WebSocketConfig(VerifiedTokenCache tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null) {
+                    return message;
+                }
+                if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+                    authenticate(accessor);
+                } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+                    // the forum is changed through the REST API, the socket is read-only
+                    throw new MessagingException("Sending is not supported");
+                }
+                return message;
+            }
+        });
+    }
+
+    // anonymous readers may subscribe; a presented token must be valid
+    private void authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith("Bearer ")) {
+            return;
+        }
+
+        try {
+            VerifiedTokenCache.VerifiedToken verified = tokens.verify(header.substring(7));
+            accessor.setUser(new UsernamePasswordAuthenticationToken(
+                    verified.username(),
+                    null,
+                    verified.authorities()
+            ));
+        } catch (Exception e) {
+            throw new MessagingException("Invalid token");
+        }
+    }
+}
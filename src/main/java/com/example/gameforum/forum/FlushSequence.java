@@ -0,0 +1,39 @@
+package com.example.gameforum.forum;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// a write-behind batch is in the row as soon as its UPDATE commits but leaves memory a moment later, so a read
+// spanning that moment counts it twice. the number is odd while a batch is in between; readers that saw it move re-read
+final class FlushSequence {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    // the batch's UPDATE and its removal from memory, as one step for readers
+    void commit(Runnable step) {
+        commitLock.lock();
+        sequence.incrementAndGet();
+        try {
+            step.run();
+        } finally {
+            sequence.incrementAndGet();
+            commitLock.unlock();
+        }
+    }
+
+    // waits out a batch that is being committed, a read started now would only be thrown away
+    long stamp() {
+        long stamp = sequence.get();
+        if ((stamp & 1) != 0) {
+            commitLock.lock();
+            commitLock.unlock();
+            stamp = sequence.get();
+        }
+        return stamp;
+    }
+
+    boolean unchangedSince(long stamp) {
+        return (stamp & 1) == 0 && sequence.get() == stamp;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.gameforum.forum;
+
+public interface ForumAuthorCount {
+    String getAuthor();
+    long getCount();
+}
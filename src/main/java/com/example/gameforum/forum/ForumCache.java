@@ -0,0 +1,132 @@
+package com.example.gameforum.forum;
+
+import com.example.gameforum.forum.dto.ForumTopicView;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class ForumCache {
+
+    public static final String TOPIC = "forumTopic";
+    public static final String GAME_TOPICS = "forumGameTopics";
+    public static final String GAME_TOPICS_PAGE = "forumGameTopicsPage";
+    public static final String LATEST_TOPICS = "forumLatestTopics";
+
+    private final CacheManager cacheManager;
+    // validator versions: bumped together with every eviction, so an ETag never outlives the body it was sent with.
+    // the boot stamp keeps versions of a restarted instance from repeating ones handed out before
+    private final long bootStamp = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> topicVersions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> gameVersions = new ConcurrentHashMap<>();
+
+    public ForumCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public String topicVersion(Long topicId) {
+        return bootStamp + "-" + topicVersions.getOrDefault(topicId, 0L);
+    }
+
+    public String gameVersion(Long gameId) {
+        return bootStamp + "-" + gameVersions.getOrDefault(gameId, 0L);
+    }
+
+    // a change that no cached object holds (reactions): only the topic's validator moves
+    public void touchTopic(Long topicId) {
+        afterCommit(() -> bump(topicVersions, topicId));
+    }
+
+    // the cached copy holds persisted columns only, callers add live counters on top; missing topics are not cached
+    public ForumTopicView topic(Long topicId, Supplier<ForumTopicView> loader) {
+        Cache cache = cacheManager.getCache(TOPIC);
+        ForumTopicView cached = cache == null ? null : cache.get(topicId, ForumTopicView.class);
+        if (cached != null) {
+            return cached;
+        }
+        ForumTopicView loaded = loader.get();
+        if (cache != null && loaded != null) {
+            cache.put(topicId, loaded);
+        }
+        return loaded;
+    }
+
+    // flushed view counters moved into forum_topics.views, the cached copies still hold the old column
+    public void evictTopics(Collection<Long> topicIds) {
+        Cache cache = cacheManager.getCache(TOPIC);
+        if (cache != null) {
+            topicIds.forEach(cache::evict);
+        }
+    }
+
+    public void evictGame(Long gameId) {
+        afterCommit(() -> {
+            evictKey(GAME_TOPICS, gameId);
+            evictGamePages(gameId);
+            clear(LATEST_TOPICS);
+            // after the eviction: a reader must never pair the new version with the old cached body
+            bump(gameVersions, gameId);
+        });
+    }
+
+    public void evictTopic(Long topicId, Long gameId) {
+        afterCommit(() -> {
+            evictKey(TOPIC, topicId);
+            evictKey(GAME_TOPICS, gameId);
+            evictGamePages(gameId);
+            clear(LATEST_TOPICS);
+            bump(topicVersions, topicId);
+            bump(gameVersions, gameId);
+        });
+    }
+
+    // evicting before commit would let a concurrent read cache the old rows again
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private void bump(ConcurrentHashMap<Long, Long> versions, Long id) {
+        if (id != null) {
+            versions.put(id, sequence.incrementAndGet());
+        }
+    }
+
+    private void evictKey(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void evictGamePages(Long gameId) {
+        Cache cache = cacheManager.getCache(GAME_TOPICS_PAGE);
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            String prefix = gameId + ":";
+            nativeCache.asMap().keySet().removeIf(key -> String.valueOf(key).startsWith(prefix));
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.gameforum.forum;
 
+import com.example.gameforum.common.PageResponse;
 import com.example.gameforum.forum.dto.CreateForumMessageRequest;
 import com.example.gameforum.forum.dto.CreateForumTopicRequest;
 import com.example.gameforum.forum.dto.ForumImageUploadView;
+import com.example.gameforum.forum.dto.ForumMessagePageView;
 import com.example.gameforum.forum.dto.ForumMessageReactionView;
 import com.example.gameforum.forum.dto.ForumMessageView;
 import com.example.gameforum.forum.dto.ForumTopicView;
 import com.example.gameforum.forum.dto.UpdateForumMessageRequest;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,10 +19,12 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/forum")
@@ -27,15 +33,49 @@ public class ForumController {
 
     private final ForumStorageService storageService;
     private final ForumUploadService uploadService;
+    private final ForumTopicViewCounter topicViewCounter;
+    private final ForumSseBroadcaster sseBroadcaster;
 
     @GetMapping("/games/{gameId}/topics")
-    public List<ForumTopicView> getGameTopics(@PathVariable Long gameId) {
-        return storageService.getGameTopics(gameId);
+    public ResponseEntity<List<ForumTopicView>> getGameTopics(@PathVariable Long gameId, WebRequest webRequest) {
+        String etag = storageService.getGameTopicsEtag(gameId);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return revalidated(etag).body(storageService.getGameTopics(gameId));
+    }
+
+    @GetMapping("/games/{gameId}/topics/page")
+    public PageResponse<ForumTopicView> getGameTopicsPage(
+            @PathVariable Long gameId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "activity") String sort
+    ) {
+        return storageService.getGameTopicsPage(gameId, page, size, sort);
     }
 
     @GetMapping("/topics/{topicId}")
-    public ResponseEntity<ForumTopicView> getTopic(@PathVariable Long topicId) {
-        return ResponseEntity.of(Optional.ofNullable(storageService.getTopic(topicId)));
+    public ResponseEntity<ForumTopicView> getTopic(
+            @PathVariable Long topicId,
+            Authentication authentication,
+            HttpServletRequest httpRequest,
+            WebRequest webRequest
+    ) {
+        // a matching validator was handed out for this topic and deleting it would have moved the version
+        String etag = storageService.getTopicEtag(topicId);
+        String viewer = authentication == null ? httpRequest.getRemoteAddr() : authentication.getName();
+        if (webRequest.checkNotModified(etag)) {
+            topicViewCounter.record(topicId, viewer);
+            return notModified(etag);
+        }
+
+        ForumTopicView topic = storageService.getTopic(topicId);
+        if (topic == null) {
+            return ResponseEntity.notFound().build();
+        }
+        topicViewCounter.record(topicId, viewer);
+        return revalidated(etag).body(topic);
     }
 
     @GetMapping("/latest-topics")
@@ -58,8 +98,30 @@ public class ForumController {
     }
 
     @GetMapping("/topics/{topicId}/messages")
-    public List<ForumMessageView> getTopicMessages(@PathVariable Long topicId) {
-        return storageService.getTopicMessages(topicId);
+    public ResponseEntity<List<ForumMessageView>> getTopicMessages(@PathVariable Long topicId, WebRequest webRequest) {
+        String etag = storageService.getTopicEtag(topicId);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return revalidated(etag).body(storageService.getTopicMessages(topicId));
+    }
+
+    @GetMapping(value = "/topics/{topicId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTopic(@PathVariable Long topicId) {
+        if (storageService.getTopic(topicId) == null) {
+            throw new IllegalArgumentException("Topic not found");
+        }
+        return sseBroadcaster.subscribe(topicId);
+    }
+
+    @GetMapping("/topics/{topicId}/messages/page")
+    public ForumMessagePageView getTopicMessagesPage(
+            @PathVariable Long topicId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return storageService.getTopicMessagesPage(topicId, afterId, beforeId, limit);
     }
 
     @PostMapping("/topics/{topicId}/messages")
@@ -130,7 +192,7 @@ public class ForumController {
             throw new IllegalArgumentException("Authentication required");
         }
 
-        ForumMessageReactionView updated = storageService.likeMessage(messageId);
+        ForumMessageReactionView updated = storageService.likeMessage(messageId, authentication.getName());
         return ResponseEntity.ok(updated);
     }
 
@@ -143,7 +205,7 @@ public class ForumController {
             throw new IllegalArgumentException("Authentication required");
         }
 
-        ForumMessageReactionView updated = storageService.dislikeMessage(messageId);
+        ForumMessageReactionView updated = storageService.dislikeMessage(messageId, authentication.getName());
         return ResponseEntity.ok(updated);
     }
 
@@ -160,6 +222,34 @@ public class ForumController {
         return ResponseEntity.status(HttpStatus.CREATED).body(new ForumImageUploadView(url));
     }
 
+    // same upload with the file as the raw body: streamed straight to disk, no multipart parsing
+    @PostMapping(value = "/uploads/image", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ForumImageUploadView> uploadImageStream(
+            HttpServletRequest request,
+            Authentication authentication
+    ) throws IOException {
+        if (authentication == null) {
+            throw new IllegalArgumentException("Authentication required");
+        }
+
+        String url = uploadService.storeImage(request.getInputStream(), request.getContentLengthLong());
+        return ResponseEntity.status(HttpStatus.CREATED).body(new ForumImageUploadView(url));
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    // no-cache lets browsers and the CDN keep the body but revalidate it on every use
+    private ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache());
+    }
+
     private boolean isAdmin(Authentication authentication) {
         if (authentication == null) {
             return false;
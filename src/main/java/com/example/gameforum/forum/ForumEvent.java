@@ -0,0 +1,10 @@
+package com.example.gameforum.forum;
+
+// published by ForumStorageService, delivered to live subscribers after the transaction commits
+public record ForumEvent(
+        ForumEventType type,
+        Long gameId,
+        Long topicId,
+        Object payload
+) {
+}
@@ -0,0 +1,20 @@
+package com.example.gameforum.forum;
+
+public enum ForumEventType {
+    TOPIC_CREATED("topic-created"),
+    TOPIC_DELETED("topic-deleted"),
+    MESSAGE_CREATED("message-created"),
+    MESSAGE_UPDATED("message-updated"),
+    MESSAGE_DELETED("message-deleted"),
+    REACTION_UPDATED("reaction-updated");
+
+    private final String eventName;
+
+    ForumEventType(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String eventName() {
+        return eventName;
+    }
+}
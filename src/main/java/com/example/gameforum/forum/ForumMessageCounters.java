@@ -0,0 +1,8 @@
+package com.example.gameforum.forum;
+
+public interface ForumMessageCounters {
+    Long getMessageId();
+    Long getTopicId();
+    int getLikes();
+    int getDislikes();
+}
@@ -30,15 +30,18 @@ public class ForumMessageEntity {
     @Column(nullable = false, columnDefinition = "text")
     private String content;
 
-    @Column(name = "image_urls_text", nullable = false, columnDefinition = "text")
-    private String imageUrlsText;
-
     @Column(name = "parent_message_id")
     private Long parentMessageId;
 
     @Column(name = "quoted_message_id")
     private Long quotedMessageId;
 
+    @Column(name = "quoted_author", length = 80)
+    private String quotedAuthor;
+
+    @Column(name = "quoted_preview", length = 180)
+    private String quotedPreview;
+
     @Column(nullable = false)
     private Integer likes;
 
@@ -0,0 +1,35 @@
+package com.example.gameforum.forum;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(
+        name = "forum_message_images",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"message_id", "position"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ForumMessageImageEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(nullable = false)
+    private Integer position;
+
+    @Column(nullable = false, length = 500)
+    private String url;
+
+    // filled for local uploads the JDK can decode; null for remote links and WebP
+    private Integer width;
+
+    private Integer height;
+}
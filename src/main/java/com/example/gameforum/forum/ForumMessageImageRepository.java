@@ -0,0 +1,25 @@
+package com.example.gameforum.forum;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ForumMessageImageRepository extends JpaRepository<ForumMessageImageEntity, Long> {
+    List<ForumMessageImageEntity> findByMessageIdOrderByPositionAsc(Long messageId);
+    List<ForumMessageImageEntity> findByMessageIdInOrderByMessageIdAscPositionAsc(Collection<Long> messageIds);
+
+    @Query("""
+        select i from ForumMessageImageEntity i
+        where i.messageId in (select m.id from ForumMessageEntity m where m.topicId = :topicId)
+        order by i.messageId, i.position
+    """)
+    List<ForumMessageImageEntity> findByTopicId(@Param("topicId") Long topicId);
+
+    @Modifying
+    @Query("delete from ForumMessageImageEntity i where i.messageId = :messageId")
+    int deleteByMessageId(@Param("messageId") Long messageId);
+}
@@ -0,0 +1,36 @@
+package com.example.gameforum.forum;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(
+        name = "forum_message_reactions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"message_id", "user_id"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ForumMessageReactionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ForumReactionKind kind;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+}
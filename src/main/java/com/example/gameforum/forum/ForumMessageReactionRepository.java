@@ -0,0 +1,34 @@
+package com.example.gameforum.forum;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ForumMessageReactionRepository extends JpaRepository<ForumMessageReactionEntity, Long> {
+
+    // a repeated click hits the unique key and writes nothing
+    @Modifying
+    @Query(value = """
+        INSERT INTO forum_message_reactions (message_id, user_id, kind, created_at)
+        VALUES (:messageId, :userId, :kind, now())
+        ON CONFLICT (message_id, user_id) DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(
+            @Param("messageId") Long messageId,
+            @Param("userId") Long userId,
+            @Param("kind") String kind
+    );
+
+    @Modifying
+    @Query(value = """
+        UPDATE forum_message_reactions
+        SET kind = :kind, created_at = now()
+        WHERE message_id = :messageId AND user_id = :userId AND kind <> :kind
+    """, nativeQuery = true)
+    int switchKind(
+            @Param("messageId") Long messageId,
+            @Param("userId") Long userId,
+            @Param("kind") String kind
+    );
+}
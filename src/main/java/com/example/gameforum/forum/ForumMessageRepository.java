@@ -1,11 +1,45 @@
 package com.example.gameforum.forum;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ForumMessageRepository extends JpaRepository<ForumMessageEntity, Long> {
     List<ForumMessageEntity> findByTopicIdOrderByIdAsc(Long topicId);
+    List<ForumMessageEntity> findByTopicIdOrderByIdAsc(Long topicId, Pageable pageable);
+    List<ForumMessageEntity> findByTopicIdAndIdGreaterThanOrderByIdAsc(Long topicId, Long afterId, Pageable pageable);
+    List<ForumMessageEntity> findByTopicIdAndIdLessThanOrderByIdDesc(Long topicId, Long beforeId, Pageable pageable);
     long countByTopicId(Long topicId);
-    long countByAuthor(String author);
+
+    @Query("select m.author as author, count(m) as count from ForumMessageEntity m where m.topicId = :topicId group by m.author")
+    List<ForumAuthorCount> countByAuthorInTopic(@Param("topicId") Long topicId);
+
+    @Query(value = "SELECT id AS messageId, topic_id AS topicId, likes, dislikes FROM forum_messages WHERE id = :id",
+            nativeQuery = true)
+    Optional<ForumMessageCounters> findCounters(@Param("id") Long id);
+
+    @Modifying
+    @Query("update ForumMessageEntity m set m.replies = m.replies + 1 where m.id = :id")
+    int incrementReplies(@Param("id") Long id);
+
+    @Modifying
+    @Query("update ForumMessageEntity m set m.replies = case when m.replies > 0 then m.replies - 1 else 0 end where m.id = :id")
+    int decrementReplies(@Param("id") Long id);
+
+    @Modifying
+    @Query("""
+        update ForumMessageEntity m
+        set m.quotedAuthor = :author, m.quotedPreview = :preview
+        where m.quotedMessageId = :quotedMessageId
+    """)
+    int refreshQuoteSnapshots(
+            @Param("quotedMessageId") Long quotedMessageId,
+            @Param("author") String author,
+            @Param("preview") String preview
+    );
 }
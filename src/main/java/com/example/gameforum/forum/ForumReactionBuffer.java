@@ -0,0 +1,135 @@
+package com.example.gameforum.forum;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// write-behind like/dislike counters: hot messages no longer queue up on their forum_messages row lock
+@Component
+public class ForumReactionBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ForumReactionBuffer.class);
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbc;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final FlushSequence flushes = new FlushSequence();
+    // merge/remove on a ConcurrentHashMap lock only the bin of one message, so unrelated messages never contend
+    private final ConcurrentHashMap<Long, Delta> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Delta> inFlight = new ConcurrentHashMap<>();
+
+    public ForumReactionBuffer(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // the delta joins the buffer only once the reaction row is committed, a rollback must not move the counters
+    public void record(Long messageId, Delta delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.merge(messageId, delta, Delta::plus);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.merge(messageId, delta, Delta::plus);
+            }
+        });
+    }
+
+    public Delta pendingFor(Long messageId) {
+        return pending.getOrDefault(messageId, Delta.ZERO)
+                .plus(inFlight.getOrDefault(messageId, Delta.ZERO));
+    }
+
+    // taken before reading forum_messages counters; pendingFor is only exact if unchangedSince still holds afterwards
+    public long stamp() {
+        return flushes.stamp();
+    }
+
+    public boolean unchangedSince(long stamp) {
+        return flushes.unchangedSince(stamp);
+    }
+
+    @Scheduled(fixedDelayString = "${app.forum.reactions.flush-period-ms}")
+    public void flush() {
+        // a ReentrantLock rather than synchronized: the JDBC call inside must not pin a virtual thread's carrier
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        for (Long messageId : pending.keySet()) {
+            pending.computeIfPresent(messageId, (id, delta) -> {
+                inFlight.merge(id, delta, Delta::plus);
+                return null;
+            });
+        }
+        if (inFlight.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Delta>> drained = new ArrayList<>(inFlight.entrySet());
+        for (int from = 0; from < drained.size(); from += FLUSH_BATCH_SIZE) {
+            List<Map.Entry<Long, Delta>> batch = drained.subList(from, Math.min(from + FLUSH_BATCH_SIZE, drained.size()));
+            try {
+                flushes.commit(() -> {
+                    applyBatch(batch);
+                    batch.forEach(entry -> inFlight.remove(entry.getKey()));
+                });
+            } catch (RuntimeException e) {
+                // keep the deltas in flight, the next flush retries them
+                log.warn("Failed to flush {} reaction deltas", batch.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!inFlight.isEmpty()) {
+            log.error("Lost {} reaction deltas on shutdown", inFlight.size());
+        }
+    }
+
+    private void applyBatch(List<Map.Entry<Long, Delta>> batch) {
+        StringBuilder sql = new StringBuilder("""
+                UPDATE forum_messages AS m
+                SET likes = GREATEST(m.likes + d.likes, 0),
+                    dislikes = GREATEST(m.dislikes + d.dislikes, 0)
+                FROM (VALUES\s""");
+        List<Object> args = new ArrayList<>(batch.size() * 3);
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?::bigint, ?::int, ?::int)");
+            Map.Entry<Long, Delta> entry = batch.get(i);
+            args.add(entry.getKey());
+            args.add(entry.getValue().likes());
+            args.add(entry.getValue().dislikes());
+        }
+        sql.append(") AS d(id, likes, dislikes) WHERE m.id = d.id");
+
+        jdbc.update(sql.toString(), args.toArray());
+    }
+
+    public record Delta(int likes, int dislikes) {
+        static final Delta ZERO = new Delta(0, 0);
+
+        Delta plus(Delta other) {
+            return new Delta(likes + other.likes, dislikes + other.dislikes);
+        }
+    }
+}
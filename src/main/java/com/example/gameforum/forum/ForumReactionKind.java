@@ -0,0 +1,5 @@
+package com.example.gameforum.forum;
+
+public enum ForumReactionKind {
+    LIKE, DISLIKE
+}
@@ -0,0 +1,135 @@
+package com.example.gameforum.forum;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// idle emitters are parked servlet async requests, only the small dispatch pool does the writing
+@Component
+public class ForumSseBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ForumSseBroadcaster.class);
+    private static final long EMITTER_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+    private static final int DISPATCH_QUEUE_CAPACITY = 10_000;
+
+    private final int maxSubscribers;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Map<Long, Set<SseEmitter>> subscribersByTopic = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor dispatcher;
+
+    public ForumSseBroadcaster(
+            @Value("${app.forum.live.max-subscribers}") int maxSubscribers,
+            @Value("${app.forum.live.dispatch-threads}") int dispatchThreads
+    ) {
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(
+                dispatchThreads,
+                dispatchThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(DISPATCH_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "forum-sse-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // a live feed is best effort: under overload drop the oldest update, clients resync on reconnect
+                new ThreadPoolExecutor.DiscardOldestPolicy()
+        );
+    }
+
+    public SseEmitter subscribe(Long topicId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        subscribersByTopic.compute(topicId, (id, subscribers) -> {
+            Set<SseEmitter> target = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            target.add(emitter);
+            return target;
+        });
+
+        Runnable unsubscribe = () -> unsubscribe(topicId, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onForumEvent(ForumEvent event) {
+        if (event.topicId() == null) {
+            return;
+        }
+        Set<SseEmitter> subscribers = subscribersByTopic.get(event.topicId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+
+        dispatcher.execute(() -> {
+            for (SseEmitter emitter : subscribers) {
+                send(event.topicId(), emitter, SseEmitter.event()
+                        .name(event.type().eventName())
+                        .data(event.payload(), MediaType.APPLICATION_JSON));
+            }
+        });
+    }
+
+    // keeps proxies from closing idle streams and detects clients that went away
+    @Scheduled(fixedRate = 25_000)
+    public void heartbeat() {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        dispatcher.execute(() -> subscribersByTopic.forEach((topicId, subscribers) -> {
+            for (SseEmitter emitter : subscribers) {
+                send(topicId, emitter, SseEmitter.event().comment("ping"));
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribersByTopic.values().forEach(subscribers -> subscribers.forEach(SseEmitter::complete));
+    }
+
+    private void send(Long topicId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping SSE subscriber of topic {}", topicId, e);
+            unsubscribe(topicId, emitter);
+        }
+    }
+
+    private void unsubscribe(Long topicId, SseEmitter emitter) {
+        subscribersByTopic.computeIfPresent(topicId, (id, subscribers) -> {
+            if (subscribers.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.gameforum.forum;
+
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+@Component
+public class ForumStompPublisher {
+
+    private static final String EVENT_HEADER = "event";
+
+    private final SimpMessagingTemplate messaging;
+
+    public ForumStompPublisher(SimpMessagingTemplate messaging) {
+        this.messaging = messaging;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onForumEvent(ForumEvent event) {
+        Map<String, Object> headers = Map.of(EVENT_HEADER, event.type().eventName());
+
+        if (event.topicId() != null) {
+            messaging.convertAndSend("/topic/forum/" + event.topicId(), event.payload(), headers);
+        }
+        if (event.gameId() != null && isGameLevel(event.type())) {
+            messaging.convertAndSend("/topic/game/" + event.gameId(), event.payload(), headers);
+        }
+    }
+
+    // game channels get topic lifecycle and new posts, not every edit or reaction inside a thread
+    private boolean isGameLevel(ForumEventType type) {
+        return type == ForumEventType.TOPIC_CREATED
+                || type == ForumEventType.TOPIC_DELETED
+                || type == ForumEventType.MESSAGE_CREATED;
+    }
+}
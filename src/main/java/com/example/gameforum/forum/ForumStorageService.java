@@ -1,13 +1,24 @@
 package com.example.gameforum.forum;
 
+import com.example.gameforum.common.ImageDimensions;
+import com.example.gameforum.common.ImageVariants;
+import com.example.gameforum.common.PageResponse;
+import com.example.gameforum.common.UploadReferences;
 import com.example.gameforum.forum.dto.CreateForumMessageRequest;
 import com.example.gameforum.forum.dto.CreateForumTopicRequest;
+import com.example.gameforum.forum.dto.ForumImageView;
+import com.example.gameforum.forum.dto.ForumMessagePageView;
 import com.example.gameforum.forum.dto.ForumMessageReactionView;
 import com.example.gameforum.forum.dto.ForumMessageView;
 import com.example.gameforum.forum.dto.ForumTopicView;
 import com.example.gameforum.forum.dto.UpdateForumMessageRequest;
 import com.example.gameforum.game.GameRepository;
+import com.example.gameforum.user.UserEntity;
+import com.example.gameforum.user.UserRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -15,11 +26,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,35 +53,110 @@ public class ForumStorageService {
     private static final int MAX_TOPIC_DESCRIPTION = 1000;
     private static final int MAX_IMAGE_URLS = 5;
     private static final int MAX_QUOTE_PREVIEW = 180;
+    private static final int MAX_MESSAGES_PAGE = 100;
+    private static final int MAX_TOPICS_PAGE = 100;
+    private static final int MAX_COUNTER_READS = 3;
 
     private final ForumTopicRepository topics;
     private final ForumMessageRepository messages;
+    private final ForumMessageImageRepository messageImages;
+    private final ForumMessageReactionRepository reactions;
+    private final UserForumStatsRepository authorStats;
+    private final ForumReactionBuffer reactionBuffer;
+    private final ForumTopicViewCounter topicViewCounter;
+    private final ForumCache forumCache;
+    private final ImageVariants imageVariants;
+    private final UploadReferences uploadReferences;
+    private final ApplicationEventPublisher events;
     private final GameRepository games;
-
-    public ForumStorageService(ForumTopicRepository topics, ForumMessageRepository messages, GameRepository games) {
+    private final UserRepository users;
+
+    public ForumStorageService(
+            ForumTopicRepository topics,
+            ForumMessageRepository messages,
+            ForumMessageImageRepository messageImages,
+            ForumMessageReactionRepository reactions,
+            UserForumStatsRepository authorStats,
+            ForumReactionBuffer reactionBuffer,
+            ForumTopicViewCounter topicViewCounter,
+            ForumCache forumCache,
+            ImageVariants imageVariants,
+            UploadReferences uploadReferences,
+            ApplicationEventPublisher events,
+            GameRepository games,
+            UserRepository users
+    ) {
         this.topics = topics;
         this.messages = messages;
+        this.messageImages = messageImages;
+        this.reactions = reactions;
+        this.authorStats = authorStats;
+        this.reactionBuffer = reactionBuffer;
+        this.topicViewCounter = topicViewCounter;
+        this.forumCache = forumCache;
+        this.imageVariants = imageVariants;
+        this.uploadReferences = uploadReferences;
+        this.events = events;
         this.games = games;
+        this.users = users;
     }
 
+    @Cacheable(cacheNames = ForumCache.GAME_TOPICS, key = "#gameId")
     public List<ForumTopicView> getGameTopics(Long gameId) {
-        return topics.findByGameIdOrderByIdDesc(gameId).stream()
+        return readCounters(() -> topics.findByGameIdOrderByIdDesc(gameId).stream()
                 .map(this::toTopicView)
-                .toList();
+                .toList());
+    }
+
+    @Cacheable(cacheNames = ForumCache.GAME_TOPICS_PAGE, key = "#gameId + ':' + #page + ':' + #size + ':' + #sort")
+    public PageResponse<ForumTopicView> getGameTopicsPage(Long gameId, int page, int size, String sort) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.min(Math.max(size, 1), MAX_TOPICS_PAGE);
+        Pageable pageable = PageRequest.of(safePage, safeSize, resolveTopicSort(sort));
+        return readCounters(() -> PageResponse.from(topics.findByGameId(gameId, pageable).map(this::toTopicView)));
     }
 
+    // views still sitting in ForumTopicViewCounter are added on every read, not frozen into the cached copy
     public ForumTopicView getTopic(Long topicId) {
-        return topics.findById(topicId)
-                .map(this::toTopicView)
-                .orElse(null);
+        // a copy cached on the wrong side of a flush is dropped before the next attempt
+        return readCounters(() -> {
+            ForumTopicView stored = forumCache.topic(topicId, () -> topics.findById(topicId)
+                    .map(topic -> toTopicView(topic, 0))
+                    .orElse(null));
+            if (stored == null) {
+                return null;
+            }
+            return new ForumTopicView(
+                    stored.id(),
+                    stored.gameId(),
+                    stored.title(),
+                    stored.description(),
+                    stored.author(),
+                    stored.replies(),
+                    stored.views() + topicViewCounter.pendingFor(topicId),
+                    stored.lastActivity(),
+                    stored.icon()
+            );
+        }, () -> forumCache.evictTopics(List.of(topicId)));
     }
 
+    // validators for conditional GET, answered from memory: they change whenever a topic, its messages or its
+    // reactions change. view counts are deliberately left out, a 304 may show views a few seconds old
+    public String getTopicEtag(Long topicId) {
+        return "\"t" + topicId + "-" + forumCache.topicVersion(topicId) + "\"";
+    }
+
+    public String getGameTopicsEtag(Long gameId) {
+        return "\"g" + gameId + "-" + forumCache.gameVersion(gameId) + "\"";
+    }
+
+    @Cacheable(cacheNames = ForumCache.LATEST_TOPICS, key = "#limit")
     public List<ForumTopicView> getLatestTopics(int limit) {
         int safeLimit = Math.min(Math.max(limit, 1), 20);
-        return topics.findAll(PageRequest.of(0, safeLimit, Sort.by(Sort.Direction.DESC, "lastActivityAt")))
+        return readCounters(() -> topics.findAll(PageRequest.of(0, safeLimit, Sort.by(Sort.Direction.DESC, "lastActivityAt")))
                 .stream()
                 .map(this::toTopicView)
-                .toList();
+                .toList());
     }
 
     @Transactional
@@ -87,22 +178,74 @@ public class ForumStorageService {
                 .lastActivityAt(now)
                 .build();
 
-        return toTopicView(topics.save(topic));
+        ForumTopicView created = toTopicView(topics.save(topic));
+        authorStats.adjust(author, 1, 0);
+        forumCache.evictGame(gameId);
+        events.publishEvent(new ForumEvent(ForumEventType.TOPIC_CREATED, gameId, created.id(), created));
+        return created;
     }
 
     public List<ForumMessageView> getTopicMessages(Long topicId) {
+        return readCounters(() -> loadTopicMessages(topicId));
+    }
+
+    private List<ForumMessageView> loadTopicMessages(Long topicId) {
         List<ForumMessageEntity> inTopic = messages.findByTopicIdOrderByIdAsc(topicId);
-        Map<Long, ForumMessageEntity> byId = inTopic.stream()
-                .collect(Collectors.toMap(ForumMessageEntity::getId, m -> m));
+        Map<Long, ForumMessageEntity> quotes = resolveQuotedMessages(inTopic);
+        // the whole thread can outgrow a bind-parameter list, so its images are read by topic instead of by id
+        Map<Long, List<ForumMessageImageEntity>> images = messageImages.findByTopicId(topicId).stream()
+                .collect(Collectors.groupingBy(ForumMessageImageEntity::getMessageId));
 
         return inTopic.stream()
-                .map(message -> toMessageView(message, byId))
+                .map(message -> toMessageView(message, quotes, images))
+                .toList();
+    }
+
+    public ForumMessagePageView getTopicMessagesPage(Long topicId, Long afterId, Long beforeId, int limit) {
+        if (afterId != null && beforeId != null) {
+            throw new IllegalArgumentException("Use either afterId or beforeId, not both");
+        }
+        return readCounters(() -> loadTopicMessagesPage(topicId, afterId, beforeId, limit));
+    }
+
+    private ForumMessagePageView loadTopicMessagesPage(Long topicId, Long afterId, Long beforeId, int limit) {
+
+        int safeLimit = Math.min(Math.max(limit, 1), MAX_MESSAGES_PAGE);
+        // one extra row tells us whether another page exists without a count query
+        Pageable window = PageRequest.of(0, safeLimit + 1);
+
+        List<ForumMessageEntity> fetched;
+        if (beforeId != null) {
+            fetched = messages.findByTopicIdAndIdLessThanOrderByIdDesc(topicId, beforeId, window);
+        } else if (afterId != null) {
+            fetched = messages.findByTopicIdAndIdGreaterThanOrderByIdAsc(topicId, afterId, window);
+        } else {
+            fetched = messages.findByTopicIdOrderByIdAsc(topicId, window);
+        }
+
+        boolean hasMore = fetched.size() > safeLimit;
+        List<ForumMessageEntity> page = new ArrayList<>(hasMore ? fetched.subList(0, safeLimit) : fetched);
+        if (beforeId != null) {
+            Collections.reverse(page);
+        }
+
+        Long nextCursor = null;
+        if (hasMore) {
+            nextCursor = beforeId != null ? page.get(0).getId() : page.get(page.size() - 1).getId();
+        }
+
+        Map<Long, ForumMessageEntity> quotes = resolveQuotedMessages(page);
+        Map<Long, List<ForumMessageImageEntity>> images = resolveImages(page);
+        List<ForumMessageView> items = page.stream()
+                .map(message -> toMessageView(message, quotes, images))
                 .toList();
+
+        return new ForumMessagePageView(items, nextCursor, hasMore);
     }
 
     @Transactional
     public ForumMessageView addMessage(Long topicId, String author, CreateForumMessageRequest request) {
-        ForumTopicEntity topic = topics.findById(topicId)
+        Long gameId = topics.findGameIdById(topicId)
                 .orElseThrow(() -> new IllegalArgumentException("Topic not found"));
 
         String sanitizedContent = sanitizeMessageContent(request.content());
@@ -112,7 +255,8 @@ public class ForumStorageService {
         }
 
         Long parentMessageId = normalizeMessageReference(request.parentMessageId(), topicId);
-        Long quotedMessageId = normalizeMessageReference(request.quotedMessageId(), topicId);
+        ForumMessageEntity quotedMessage = findReferencedMessage(request.quotedMessageId(), topicId);
+        Long quotedMessageId = quotedMessage == null ? null : quotedMessage.getId();
         if (parentMessageId == null && quotedMessageId != null) {
             parentMessageId = quotedMessageId;
         }
@@ -123,9 +267,10 @@ public class ForumStorageService {
                 .author(author)
                 .avatarColor(pickAvatarColor(author))
                 .content(sanitizedContent)
-                .imageUrlsText(joinImageUrls(imageUrls))
                 .parentMessageId(parentMessageId)
                 .quotedMessageId(quotedMessageId)
+                .quotedAuthor(quotedMessage == null ? null : quotedMessage.getAuthor())
+                .quotedPreview(quotedMessage == null ? null : buildQuotePreview(quotedMessage.getContent()))
                 .likes(0)
                 .dislikes(0)
                 .replies(0)
@@ -134,19 +279,19 @@ public class ForumStorageService {
                 .build();
 
         ForumMessageEntity saved = messages.save(message);
+        List<ForumMessageImageEntity> savedImages = saveImages(saved.getId(), imageUrls);
+        uploadReferences.retain(imageUrls);
 
         if (parentMessageId != null) {
-            messages.findById(parentMessageId).ifPresent(parent -> {
-                parent.setReplies((parent.getReplies() == null ? 0 : parent.getReplies()) + 1);
-                messages.save(parent);
-            });
+            messages.incrementReplies(parentMessageId);
         }
+        topics.incrementReplies(topicId, now);
+        authorStats.adjust(author, 0, 1);
+        forumCache.evictTopic(topicId, gameId);
 
-        topic.setReplies((topic.getReplies() == null ? 0 : topic.getReplies()) + 1);
-        topic.setLastActivityAt(now);
-        topics.save(topic);
-
-        return toMessageView(saved, Map.of());
+        ForumMessageView created = toMessageView(saved, resolveQuotedMessages(List.of(saved)), Map.of(saved.getId(), savedImages));
+        events.publishEvent(new ForumEvent(ForumEventType.MESSAGE_CREATED, gameId, topicId, created));
+        return created;
     }
 
     @Transactional
@@ -165,13 +310,25 @@ public class ForumStorageService {
         }
 
         OffsetDateTime now = OffsetDateTime.now();
+        List<ForumMessageImageEntity> previousImages = messageImages.findByMessageIdOrderByPositionAsc(messageId);
+        List<String> previousUrls = previousImages.stream()
+                .map(ForumMessageImageEntity::getUrl)
+                .toList();
+        uploadReferences.replace(previousUrls, imageUrls);
         message.setContent(sanitizedContent);
-        message.setImageUrlsText(joinImageUrls(imageUrls));
         message.setEditedAt(now);
         ForumMessageEntity saved = messages.save(message);
+        List<ForumMessageImageEntity> savedImages = imageUrls.equals(previousUrls)
+                ? previousImages
+                : replaceImages(messageId, imageUrls);
+        messages.refreshQuoteSnapshots(saved.getId(), saved.getAuthor(), buildQuotePreview(saved.getContent()));
+
+        topics.touchLastActivity(saved.getTopicId(), now);
+        Long gameId = evictTopicCaches(saved.getTopicId());
 
-        touchTopicLastActivity(saved.getTopicId(), now);
-        return toMessageView(saved, Map.of());
+        ForumMessageView updated = toMessageView(saved, resolveQuotedMessages(List.of(saved)), Map.of(messageId, savedImages));
+        events.publishEvent(new ForumEvent(ForumEventType.MESSAGE_UPDATED, gameId, saved.getTopicId(), updated));
+        return updated;
     }
 
     @Transactional
@@ -182,65 +339,151 @@ public class ForumStorageService {
         Long topicId = message.getTopicId();
         Long parentMessageId = message.getParentMessageId();
 
+        messages.refreshQuoteSnapshots(messageId, null, null);
+        uploadReferences.release(messageImages.findByMessageIdOrderByPositionAsc(messageId).stream()
+                .map(ForumMessageImageEntity::getUrl)
+                .toList());
         messages.delete(message);
 
         if (parentMessageId != null) {
-            messages.findById(parentMessageId).ifPresent(parent -> {
-                int currentReplies = parent.getReplies() == null ? 0 : parent.getReplies();
-                parent.setReplies(Math.max(0, currentReplies - 1));
-                messages.save(parent);
-            });
+            messages.decrementReplies(parentMessageId);
         }
-
-        OffsetDateTime now = OffsetDateTime.now();
-        topics.findById(topicId).ifPresent(topic -> {
-            topic.setReplies((int) messages.countByTopicId(topicId));
-            topic.setLastActivityAt(now);
-            topics.save(topic);
-        });
+        topics.decrementReplies(topicId, OffsetDateTime.now());
+        authorStats.adjust(message.getAuthor(), 0, -1);
+        Long gameId = evictTopicCaches(topicId);
+        events.publishEvent(new ForumEvent(ForumEventType.MESSAGE_DELETED, gameId, topicId, Map.of("id", messageId)));
     }
 
     @Transactional
     public void deleteTopic(Long topicId) {
-        if (!topics.existsById(topicId)) {
-            throw new IllegalArgumentException("Topic not found");
+        ForumTopicEntity topic = topics.findById(topicId)
+                .orElseThrow(() -> new IllegalArgumentException("Topic not found"));
+        Long gameId = topic.getGameId();
+
+        // messages go with the topic via ON DELETE CASCADE, so their authors and images are counted down first
+        for (ForumAuthorCount count : messages.countByAuthorInTopic(topicId)) {
+            authorStats.adjust(count.getAuthor(), 0, -Math.toIntExact(count.getCount()));
         }
-        topics.deleteById(topicId);
+        authorStats.adjust(topic.getAuthor(), -1, 0);
+        // released per message: the same upload in two messages holds two references
+        messageImages.findByTopicId(topicId).stream()
+                .collect(Collectors.groupingBy(ForumMessageImageEntity::getMessageId,
+                        Collectors.mapping(ForumMessageImageEntity::getUrl, Collectors.toList())))
+                .values()
+                .forEach(uploadReferences::release);
+        topics.delete(topic);
+        forumCache.evictTopic(topicId, gameId);
+        events.publishEvent(new ForumEvent(ForumEventType.TOPIC_DELETED, gameId, topicId, Map.of("id", topicId)));
     }
 
     @Transactional
-    public ForumMessageReactionView likeMessage(Long messageId) {
-        ForumMessageEntity message = messages.findById(messageId)
-                .orElseThrow(() -> new IllegalArgumentException("Message not found"));
+    public ForumMessageReactionView likeMessage(Long messageId, String username) {
+        return react(messageId, username, ForumReactionKind.LIKE);
+    }
 
-        int updatedLikes = (message.getLikes() == null ? 0 : message.getLikes()) + 1;
-        message.setLikes(updatedLikes);
-        messages.save(message);
+    @Transactional
+    public ForumMessageReactionView dislikeMessage(Long messageId, String username) {
+        return react(messageId, username, ForumReactionKind.DISLIKE);
+    }
 
-        return new ForumMessageReactionView(
-                message.getId(),
-                updatedLikes,
-                message.getDislikes() == null ? 0 : message.getDislikes()
-        );
+    // one reaction per user and message: repeating it is a no-op, the opposite one switches it
+    private ForumMessageReactionView react(Long messageId, String username, ForumReactionKind kind) {
+        if (!messages.existsById(messageId)) {
+            throw new IllegalArgumentException("Message not found");
+        }
+        Long userId = users.findByUsername(username)
+                .map(UserEntity::getId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        // counters on forum_messages are written behind by ForumReactionBuffer, only the reaction row is written here
+        boolean like = kind == ForumReactionKind.LIKE;
+        ForumReactionBuffer.Delta applied = ForumReactionBuffer.Delta.ZERO;
+        if (reactions.insertIfAbsent(messageId, userId, kind.name()) > 0) {
+            applied = new ForumReactionBuffer.Delta(like ? 1 : 0, like ? 0 : 1);
+        } else if (reactions.switchKind(messageId, userId, kind.name()) > 0) {
+            applied = new ForumReactionBuffer.Delta(like ? 1 : -1, like ? -1 : 1);
+        }
+        boolean changed = !applied.equals(ForumReactionBuffer.Delta.ZERO);
+        if (changed) {
+            reactionBuffer.record(messageId, applied);
+        }
+
+        // the buffer sees this reaction only after commit, so the response adds it on top
+        ForumReactionBuffer.Delta uncommitted = applied;
+        CountedReaction counted = readCounters(() -> messages.findCounters(messageId)
+                .map(row -> new CountedReaction(row, toReactionView(row, kind, uncommitted)))
+                .orElseThrow(() -> new IllegalArgumentException("Message not found")));
+        ForumMessageCounters counters = counted.counters();
+        ForumMessageReactionView view = counted.view();
+        // a repeated click changes nothing, so subscribers are not woken for it
+        if (changed) {
+            forumCache.touchTopic(counters.getTopicId());
+            // the broadcast copy carries only the counters, not this user's own reaction
+            events.publishEvent(new ForumEvent(
+                    ForumEventType.REACTION_UPDATED,
+                    null,
+                    counters.getTopicId(),
+                    new ForumMessageReactionView(view.messageId(), view.likes(), view.dislikes(), null)
+            ));
+        }
+        return view;
     }
 
-    @Transactional
-    public ForumMessageReactionView dislikeMessage(Long messageId) {
-        ForumMessageEntity message = messages.findById(messageId)
-                .orElseThrow(() -> new IllegalArgumentException("Message not found"));
+    private Long evictTopicCaches(Long topicId) {
+        Long gameId = topics.findGameIdById(topicId).orElse(null);
+        forumCache.evictTopic(topicId, gameId);
+        return gameId;
+    }
 
-        int updatedDislikes = (message.getDislikes() == null ? 0 : message.getDislikes()) + 1;
-        message.setDislikes(updatedDislikes);
-        messages.save(message);
+    // every option is backed by a (game_id, ...) composite index, id breaks ties for stable paging
+    private Sort resolveTopicSort(String sort) {
+        String normalized = sort == null ? "" : sort.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "", "activity" -> Sort.by(Sort.Direction.DESC, "lastActivityAt", "id");
+            case "replies" -> Sort.by(Sort.Direction.DESC, "replies", "id");
+            case "created" -> Sort.by(Sort.Direction.DESC, "createdAt", "id");
+            default -> throw new IllegalArgumentException("Unknown sort: use activity, replies or created");
+        };
+    }
+
+    // a write-behind flush committing during the read would count its batch in the rows and in memory: read again
+    private <T> T readCounters(Supplier<T> read) {
+        return readCounters(read, () -> {
+        });
+    }
 
+    private <T> T readCounters(Supplier<T> read, Runnable beforeRetry) {
+        for (int attempt = 1; ; attempt++) {
+            long views = topicViewCounter.stamp();
+            long reactions = reactionBuffer.stamp();
+            T result = read.get();
+            if (attempt == MAX_COUNTER_READS
+                    || (topicViewCounter.unchangedSince(views) && reactionBuffer.unchangedSince(reactions))) {
+                return result;
+            }
+            beforeRetry.run();
+        }
+    }
+
+    private ForumMessageReactionView toReactionView(
+            ForumMessageCounters counters,
+            ForumReactionKind reaction,
+            ForumReactionBuffer.Delta uncommitted
+    ) {
+        ForumReactionBuffer.Delta pending = reactionBuffer.pendingFor(counters.getMessageId()).plus(uncommitted);
         return new ForumMessageReactionView(
-                message.getId(),
-                message.getLikes() == null ? 0 : message.getLikes(),
-                updatedDislikes
+                counters.getMessageId(),
+                Math.max(0, counters.getLikes() + pending.likes()),
+                Math.max(0, counters.getDislikes() + pending.dislikes()),
+                reaction.name()
         );
     }
 
     private ForumTopicView toTopicView(ForumTopicEntity topic) {
+        return toTopicView(topic, topicViewCounter.pendingFor(topic.getId()));
+    }
+
+    private ForumTopicView toTopicView(ForumTopicEntity topic, int pendingViews) {
         return new ForumTopicView(
                 topic.getId(),
                 topic.getGameId(),
@@ -248,44 +491,116 @@ public class ForumStorageService {
                 topic.getDescription(),
                 topic.getAuthor(),
                 topic.getReplies() == null ? 0 : topic.getReplies(),
-                topic.getViews() == null ? 0 : topic.getViews(),
+                (topic.getViews() == null ? 0 : topic.getViews()) + pendingViews,
                 formatDate(topic.getLastActivityAt()),
                 sanitizeTopicIcon(topic.getIcon())
         );
     }
 
-    private ForumMessageView toMessageView(ForumMessageEntity message, Map<Long, ForumMessageEntity> inTopicById) {
-        ForumMessageEntity quoted = null;
+    // quotes without a stored snapshot are loaded with one IN query instead of a SELECT per message
+    private Map<Long, ForumMessageEntity> resolveQuotedMessages(Collection<ForumMessageEntity> batch) {
+        Map<Long, ForumMessageEntity> byId = new HashMap<>();
+        for (ForumMessageEntity message : batch) {
+            byId.put(message.getId(), message);
+        }
+
+        Set<Long> missing = batch.stream()
+                .filter(message -> message.getQuotedPreview() == null)
+                .map(ForumMessageEntity::getQuotedMessageId)
+                .filter(Objects::nonNull)
+                .filter(id -> !byId.containsKey(id))
+                .collect(Collectors.toSet());
+        if (!missing.isEmpty()) {
+            messages.findAllById(missing).forEach(quoted -> byId.put(quoted.getId(), quoted));
+        }
+
+        return byId;
+    }
+
+    // images of one bounded page come from one IN query, already in display order
+    private Map<Long, List<ForumMessageImageEntity>> resolveImages(Collection<ForumMessageEntity> batch) {
+        if (batch.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = batch.stream().map(ForumMessageEntity::getId).toList();
+        return messageImages.findByMessageIdInOrderByMessageIdAscPositionAsc(ids).stream()
+                .collect(Collectors.groupingBy(ForumMessageImageEntity::getMessageId));
+    }
+
+    private List<ForumMessageImageEntity> saveImages(Long messageId, List<String> imageUrls) {
+        List<ForumMessageImageEntity> rows = new ArrayList<>(imageUrls.size());
+        for (int position = 0; position < imageUrls.size(); position++) {
+            String url = imageUrls.get(position);
+            ImageDimensions dimensions = imageVariants.readDimensions(url);
+            rows.add(ForumMessageImageEntity.builder()
+                    .messageId(messageId)
+                    .position(position)
+                    .url(url)
+                    .width(dimensions == null ? null : dimensions.width())
+                    .height(dimensions == null ? null : dimensions.height())
+                    .build());
+        }
+        return messageImages.saveAll(rows);
+    }
+
+    private List<ForumMessageImageEntity> replaceImages(Long messageId, List<String> imageUrls) {
+        messageImages.deleteByMessageId(messageId);
+        return saveImages(messageId, imageUrls);
+    }
+
+    private ForumMessageView toMessageView(
+            ForumMessageEntity message,
+            Map<Long, ForumMessageEntity> quotedById,
+            Map<Long, List<ForumMessageImageEntity>> imagesByMessage
+    ) {
         Long quotedMessageId = message.getQuotedMessageId();
-        if (quotedMessageId != null) {
-            quoted = inTopicById.get(quotedMessageId);
-            if (quoted == null) {
-                quoted = messages.findById(quotedMessageId).orElse(null);
+        String quotedAuthor = null;
+        String quotedPreview = null;
+        if (quotedMessageId != null && message.getQuotedPreview() != null) {
+            quotedAuthor = message.getQuotedAuthor();
+            quotedPreview = message.getQuotedPreview();
+        } else if (quotedMessageId != null) {
+            ForumMessageEntity quoted = quotedById.get(quotedMessageId);
+            if (quoted != null) {
+                quotedAuthor = quoted.getAuthor();
+                quotedPreview = buildQuotePreview(quoted.getContent());
             }
         }
 
-        String quotedAuthor = quoted == null ? null : quoted.getAuthor();
-        String quotedPreview = quoted == null ? null : abbreviate(stripHtml(quoted.getContent()), MAX_QUOTE_PREVIEW);
-
+        ForumReactionBuffer.Delta pending = reactionBuffer.pendingFor(message.getId());
+        List<ForumMessageImageEntity> images = imagesByMessage.getOrDefault(message.getId(), List.of());
         return new ForumMessageView(
                 message.getId(),
                 message.getAuthor(),
                 message.getAvatarColor(),
                 formatDate(message.getCreatedAt()),
                 message.getContent(),
-                splitImageUrls(message.getImageUrlsText()),
+                images.stream().map(ForumMessageImageEntity::getUrl).toList(),
+                images.stream()
+                        .map(image -> new ForumImageView(
+                                image.getUrl(),
+                                image.getWidth(),
+                                image.getHeight(),
+                                imageVariants.variantsFor(image.getUrl())
+                        ))
+                        .toList(),
                 message.getParentMessageId(),
                 quotedMessageId,
                 quotedAuthor,
                 quotedPreview,
-                message.getLikes() == null ? 0 : message.getLikes(),
-                message.getDislikes() == null ? 0 : message.getDislikes(),
+                Math.max(0, (message.getLikes() == null ? 0 : message.getLikes()) + pending.likes()),
+                Math.max(0, (message.getDislikes() == null ? 0 : message.getDislikes()) + pending.dislikes()),
                 message.getReplies() == null ? 0 : message.getReplies(),
                 message.getEditedAt() != null
         );
     }
 
     private Long normalizeMessageReference(Long messageId, Long topicId) {
+        ForumMessageEntity referenced = findReferencedMessage(messageId, topicId);
+        return referenced == null ? null : referenced.getId();
+    }
+
+    private ForumMessageEntity findReferencedMessage(Long messageId, Long topicId) {
         if (messageId == null) {
             return null;
         }
@@ -297,14 +612,7 @@ public class ForumStorageService {
             throw new IllegalArgumentException("Referenced message belongs to another topic");
         }
 
-        return referenced.getId();
-    }
-
-    private void touchTopicLastActivity(Long topicId, OffsetDateTime at) {
-        topics.findById(topicId).ifPresent(topic -> {
-            topic.setLastActivityAt(at);
-            topics.save(topic);
-        });
+        return referenced;
     }
 
     private String formatDate(OffsetDateTime value) {
@@ -312,24 +620,6 @@ public class ForumStorageService {
         return safe.format(DATE_FORMATTER);
     }
 
-    private String joinImageUrls(List<String> imageUrls) {
-        if (imageUrls == null || imageUrls.isEmpty()) {
-            return "";
-        }
-        return String.join("\n", imageUrls);
-    }
-
-    private List<String> splitImageUrls(String raw) {
-        if (raw == null || raw.isBlank()) {
-            return List.of();
-        }
-
-        return Arrays.stream(raw.split("\n"))
-                .map(String::trim)
-                .filter(url -> !url.isBlank())
-                .toList();
-    }
-
     private String sanitizeMessageContent(String content) {
         if (content == null) {
             return "";
@@ -405,6 +695,10 @@ public class ForumStorageService {
         return AVATAR_COLORS.get(index);
     }
 
+    private String buildQuotePreview(String content) {
+        return abbreviate(stripHtml(content), MAX_QUOTE_PREVIEW);
+    }
+
     private String stripHtml(String value) {
         if (value == null || value.isBlank()) {
             return "";
@@ -424,4 +718,7 @@ public class ForumStorageService {
         }
         return value.substring(0, maxLength - 3) + "...";
     }
+
+    private record CountedReaction(ForumMessageCounters counters, ForumMessageReactionView view) {
+    }
 }
@@ -1,12 +1,34 @@
 package com.example.gameforum.forum;
 
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ForumTopicRepository extends JpaRepository<ForumTopicEntity, Long> {
     List<ForumTopicEntity> findByGameIdOrderByIdDesc(Long gameId);
+    Page<ForumTopicEntity> findByGameId(Long gameId, Pageable pageable);
     List<ForumTopicEntity> findByOrderByLastActivityAtDesc(Pageable pageable);
-    long countByAuthor(String author);
+
+    @Query("select t.gameId from ForumTopicEntity t where t.id = :id")
+    Optional<Long> findGameIdById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update ForumTopicEntity t set t.replies = t.replies + 1, t.lastActivityAt = :at where t.id = :id")
+    int incrementReplies(@Param("id") Long id, @Param("at") OffsetDateTime at);
+
+    @Modifying
+    @Query("update ForumTopicEntity t set t.replies = case when t.replies > 0 then t.replies - 1 else 0 end, "
+            + "t.lastActivityAt = :at where t.id = :id")
+    int decrementReplies(@Param("id") Long id, @Param("at") OffsetDateTime at);
+
+    @Modifying
+    @Query("update ForumTopicEntity t set t.lastActivityAt = :at where t.id = :id")
+    int touchLastActivity(@Param("id") Long id, @Param("at") OffsetDateTime at);
 }
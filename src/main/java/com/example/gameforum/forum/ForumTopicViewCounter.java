@@ -0,0 +1,145 @@
+package com.example.gameforum.forum;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// topic views are counted in memory and written to forum_topics.views by one batched UPDATE per flush
+@Component
+public class ForumTopicViewCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ForumTopicViewCounter.class);
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final int MAX_TRACKED_VIEWERS = 200_000;
+
+    private final JdbcTemplate jdbc;
+    private final ForumCache forumCache;
+    private final long dedupWindowMillis;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final FlushSequence flushes = new FlushSequence();
+    private final ConcurrentHashMap<Long, Integer> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    public ForumTopicViewCounter(
+            JdbcTemplate jdbc,
+            ForumCache forumCache,
+            @Value("${app.forum.views.dedup-window-minutes}") long dedupWindowMinutes
+    ) {
+        this.jdbc = jdbc;
+        this.forumCache = forumCache;
+        this.dedupWindowMillis = Duration.ofMinutes(dedupWindowMinutes).toMillis();
+    }
+
+    public void record(Long topicId, String viewerKey) {
+        if (topicId == null) {
+            return;
+        }
+        if (viewerKey != null && dedupWindowMillis > 0 && seenRecently(topicId + ":" + viewerKey)) {
+            return;
+        }
+        pending.merge(topicId, 1, Integer::sum);
+    }
+
+    public int pendingFor(Long topicId) {
+        return pending.getOrDefault(topicId, 0) + inFlight.getOrDefault(topicId, 0);
+    }
+
+    // taken before reading forum_topics.views; pendingFor is only exact if unchangedSince still holds afterwards
+    public long stamp() {
+        return flushes.stamp();
+    }
+
+    public boolean unchangedSince(long stamp) {
+        return flushes.unchangedSince(stamp);
+    }
+
+    @Scheduled(fixedDelayString = "${app.forum.views.flush-period-ms}")
+    public void flush() {
+        // a ReentrantLock rather than synchronized: the JDBC call inside must not pin a virtual thread's carrier
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        long cutoff = System.currentTimeMillis() - dedupWindowMillis;
+        lastSeen.values().removeIf(seenAt -> seenAt < cutoff);
+
+        for (Long topicId : pending.keySet()) {
+            pending.computeIfPresent(topicId, (id, views) -> {
+                inFlight.merge(id, views, Integer::sum);
+                return null;
+            });
+        }
+        if (inFlight.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Integer>> drained = new ArrayList<>(inFlight.entrySet());
+        for (int from = 0; from < drained.size(); from += FLUSH_BATCH_SIZE) {
+            List<Map.Entry<Long, Integer>> batch = drained.subList(from, Math.min(from + FLUSH_BATCH_SIZE, drained.size()));
+            try {
+                // cached copies loaded before the UPDATE go in the same step, or they would lose the batch
+                flushes.commit(() -> {
+                    applyBatch(batch);
+                    batch.forEach(entry -> inFlight.remove(entry.getKey()));
+                    forumCache.evictTopics(batch.stream().map(Map.Entry::getKey).toList());
+                });
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush views of {} topics", batch.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean seenRecently(String key) {
+        long now = System.currentTimeMillis();
+        if (!lastSeen.containsKey(key) && lastSeen.size() >= MAX_TRACKED_VIEWERS) {
+            // under a flood of distinct viewers count every view rather than grow without bound
+            return false;
+        }
+
+        boolean[] duplicate = {false};
+        lastSeen.compute(key, (k, seenAt) -> {
+            if (seenAt != null && now - seenAt < dedupWindowMillis) {
+                duplicate[0] = true;
+                return seenAt;
+            }
+            return now;
+        });
+        return duplicate[0];
+    }
+
+    private void applyBatch(List<Map.Entry<Long, Integer>> batch) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE forum_topics AS t SET views = t.views + d.views FROM (VALUES ");
+        List<Object> args = new ArrayList<>(batch.size() * 2);
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?::bigint, ?::int)");
+            args.add(batch.get(i).getKey());
+            args.add(batch.get(i).getValue());
+        }
+        sql.append(") AS d(id, views) WHERE t.id = d.id");
+
+        jdbc.update(sql.toString(), args.toArray());
+    }
+}
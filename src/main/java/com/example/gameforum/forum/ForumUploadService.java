@@ -1,15 +1,13 @@
 package com.example.gameforum.forum;
 
+import com.example.gameforum.common.ImageUploadPipeline;
+import com.example.gameforum.common.ImageVariants;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Locale;
-import java.util.UUID;
 
 @Service
 public class ForumUploadService {
@@ -18,52 +16,33 @@ public class ForumUploadService {
     private static final Path FORUM_UPLOADS_DIR = Paths.get("data", "uploads", "forum")
             .toAbsolutePath()
             .normalize();
+    private static final String FORUM_UPLOADS_URL = "/uploads/forum/";
 
-    public String storeImage(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            throw new IllegalArgumentException("Файл не выбран");
-        }
-        if (file.getSize() > MAX_IMAGE_BYTES) {
-            throw new IllegalArgumentException("Файл слишком большой (максимум 5 MB)");
-        }
+    private final ImageUploadPipeline pipeline;
+    private final ImageVariants variants;
 
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
-            throw new IllegalArgumentException("Разрешены только изображения");
-        }
+    public ForumUploadService(ImageUploadPipeline pipeline, ImageVariants variants) {
+        this.pipeline = pipeline;
+        this.variants = variants;
+    }
 
-        String extension = resolveExtension(file.getOriginalFilename(), contentType);
-        String fileName = UUID.randomUUID().toString().replace("-", "") + extension;
+    public String storeImage(MultipartFile file) {
+        return withVariants(pipeline.store(file, FORUM_UPLOADS_DIR, FORUM_UPLOADS_URL, MAX_IMAGE_BYTES));
+    }
 
-        try {
-            Files.createDirectories(FORUM_UPLOADS_DIR);
-            Path target = FORUM_UPLOADS_DIR.resolve(fileName).normalize();
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new IllegalStateException("Не удалось сохранить изображение", e);
+    // raw request body: nothing is buffered by the multipart resolver
+    public String storeImage(InputStream body, long declaredLength) {
+        if (declaredLength > MAX_IMAGE_BYTES) {
+            throw new IllegalArgumentException("Файл слишком большой (максимум 5 MB)");
         }
-
-        return "/uploads/forum/" + fileName;
+        return withVariants(pipeline.store(body, FORUM_UPLOADS_DIR, FORUM_UPLOADS_URL, MAX_IMAGE_BYTES));
     }
 
-    private String resolveExtension(String originalFilename, String contentType) {
-        if (originalFilename != null) {
-            int dot = originalFilename.lastIndexOf('.');
-            if (dot >= 0 && dot < originalFilename.length() - 1) {
-                String ext = originalFilename.substring(dot).toLowerCase(Locale.ROOT);
-                if (ext.matches("\\.(jpg|jpeg|png|gif|webp|bmp)")) {
-                    return ext;
-                }
-            }
+    private String withVariants(ImageUploadPipeline.StoredUpload upload) {
+        // a duplicate already has its variants
+        if (upload.created()) {
+            variants.generate(upload.url());
         }
-
-        return switch (contentType.toLowerCase(Locale.ROOT)) {
-            case "image/jpeg", "image/jpg" -> ".jpg";
-            case "image/png" -> ".png";
-            case "image/gif" -> ".gif";
-            case "image/webp" -> ".webp";
-            case "image/bmp" -> ".bmp";
-            default -> ".jpg";
-        };
+        return upload.url();
     }
 }
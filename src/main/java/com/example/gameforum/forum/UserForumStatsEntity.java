@@ -0,0 +1,29 @@
+package com.example.gameforum.forum;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "user_forum_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserForumStatsEntity {
+
+    @Id
+    @Column(length = 80)
+    private String author;
+
+    @Column(name = "topics_created", nullable = false)
+    private Integer topicsCreated;
+
+    @Column(name = "comments_created", nullable = false)
+    private Integer commentsCreated;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.example.gameforum.forum;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// user_forum_stats is maintained incrementally; this rebuild repairs drift from cascades (game deletion) or manual SQL
+@Component
+public class UserForumStatsReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(UserForumStatsReconciler.class);
+
+    private final UserForumStatsRepository stats;
+
+    public UserForumStatsReconciler(UserForumStatsRepository stats) {
+        this.stats = stats;
+    }
+
+    @Scheduled(cron = "${app.forum.stats.reconcile-cron}")
+    @Transactional
+    public void reconcile() {
+        int corrected = stats.reconcileCounts();
+        int removed = stats.deleteOrphans();
+        if (corrected > 0 || removed > 0) {
+            log.info("Reconciled user forum stats: {} rows corrected, {} rows removed", corrected, removed);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.gameforum.forum;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface UserForumStatsRepository extends JpaRepository<UserForumStatsEntity, String> {
+
+    // upsert keeps the first post of a new author and concurrent posts of one author to a single row write
+    @Modifying
+    @Query(value = """
+        INSERT INTO user_forum_stats (author, topics_created, comments_created, updated_at)
+        VALUES (:author, GREATEST(:topics, 0), GREATEST(:comments, 0), now())
+        ON CONFLICT (author) DO UPDATE
+        SET topics_created   = GREATEST(user_forum_stats.topics_created + :topics, 0),
+            comments_created = GREATEST(user_forum_stats.comments_created + :comments, 0),
+            updated_at       = now()
+    """, nativeQuery = true)
+    int adjust(
+            @Param("author") String author,
+            @Param("topics") int topics,
+            @Param("comments") int comments
+    );
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO user_forum_stats (author, topics_created, comments_created, updated_at)
+        SELECT author, SUM(topics), SUM(comments), now()
+        FROM (
+          SELECT author, COUNT(*) AS topics, 0 AS comments FROM forum_topics GROUP BY author
+          UNION ALL
+          SELECT author, 0, COUNT(*) FROM forum_messages GROUP BY author
+        ) counts
+        GROUP BY author
+        ON CONFLICT (author) DO UPDATE
+        SET topics_created   = EXCLUDED.topics_created,
+            comments_created = EXCLUDED.comments_created,
+            updated_at       = now()
+        WHERE user_forum_stats.topics_created <> EXCLUDED.topics_created
+           OR user_forum_stats.comments_created <> EXCLUDED.comments_created
+    """, nativeQuery = true)
+    int reconcileCounts();
+
+    @Modifying
+    @Query(value = """
+        DELETE FROM user_forum_stats s
+        WHERE NOT EXISTS (SELECT 1 FROM forum_topics t WHERE t.author = s.author)
+          AND NOT EXISTS (SELECT 1 FROM forum_messages m WHERE m.author = s.author)
+    """, nativeQuery = true)
+    int deleteOrphans();
+}
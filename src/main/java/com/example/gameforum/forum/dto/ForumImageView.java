@@ -0,0 +1,13 @@
+package com.example.gameforum.forum.dto;
+
+import com.example.gameforum.common.ImageVariantView;
+
+import java.util.List;
+
+public record ForumImageView(
+        String url,
+        Integer width,
+        Integer height,
+        List<ImageVariantView> variants
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.gameforum.forum.dto;
+
+import java.util.List;
+
+public record ForumMessagePageView(
+        List<ForumMessageView> items,
+        Long nextCursor,
+        boolean hasMore
+) {
+}
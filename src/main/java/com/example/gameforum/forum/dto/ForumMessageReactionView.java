@@ -3,7 +3,8 @@ package com.example.gameforum.forum.dto;
 public record ForumMessageReactionView(
         Long messageId,
         int likes,
-        int dislikes
+        int dislikes,
+        String reaction
 ) {
 }
 
@@ -9,6 +9,7 @@ public record ForumMessageView(
         String date,
         String content,
         List<String> imageUrls,
+        List<ForumImageView> images,
         Long parentMessageId,
         Long quotedMessageId,
         String quotedAuthor,
@@ -1,6 +1,7 @@
 package com.example.gameforum.game;
 
 import com.example.gameforum.common.NotFoundException;
+import com.example.gameforum.forum.ForumCache;
 import com.example.gameforum.game.dto.GameDetails;
 import com.example.gameforum.game.dto.GameListItem;
 import com.example.gameforum.review.ReviewService;
@@ -19,10 +20,12 @@ public class GameService {
 
     private final GameRepository games;
     private final ReviewService reviews;
+    private final ForumCache forumCache;
 
-    public GameService(GameRepository games, ReviewService reviews) {
+    public GameService(GameRepository games, ReviewService reviews, ForumCache forumCache) {
         this.games = games;
         this.reviews = reviews;
+        this.forumCache = forumCache;
     }
 
     public Page<GameListItem> list(int page, int size) {
@@ -93,5 +96,7 @@ public class GameService {
         GameEntity game = games.findBySlug(slug)
                 .orElseThrow(() -> new IllegalArgumentException("Game not found"));
         games.delete(game);
+        // the topics go with the game through ON DELETE CASCADE; drop their cached list and move its validator
+        forumCache.evictGame(game.getId());
     }
 }
@@ -0,0 +1,88 @@
+package com.example.gameforum.profile;
+
+import com.example.gameforum.user.UserEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "app.profile.store", havingValue = "db", matchIfMissing = true)
+public class JpaUserProfileStore implements UserProfileStore {
+
+    private final UserProfileRepository profiles;
+
+    public JpaUserProfileStore(UserProfileRepository profiles) {
+        this.profiles = profiles;
+    }
+
+    @Override
+    public Optional<StoredUserProfile> find(UserEntity user) {
+        return profiles.findById(user.getId()).map(this::toStored);
+    }
+
+    @Override
+    public void save(UserEntity user, StoredUserProfile profile) {
+        profiles.save(toEntity(user.getId(), profile));
+    }
+
+    @Override
+    public List<String> findAvatarUrls() {
+        return profiles.findAvatarUrls();
+    }
+
+    boolean exists(Long userId) {
+        return profiles.existsById(userId);
+    }
+
+    private StoredUserProfile toStored(UserProfileEntity entity) {
+        StoredUserProfile profile = new StoredUserProfile();
+        profile.avatarUrl = entity.getAvatarUrl();
+        profile.bio = entity.getBio();
+        profile.city = entity.getCity();
+        profile.favoriteGames = splitGames(entity.getFavoriteGamesText());
+        profile.emailNotifications = entity.getEmailNotifications();
+        profile.publicProfile = entity.getPublicProfile();
+        profile.updatedAt = entity.getUpdatedAt() == null ? null : entity.getUpdatedAt().toString();
+        return profile;
+    }
+
+    private UserProfileEntity toEntity(Long userId, StoredUserProfile profile) {
+        StoredUserProfile defaults = StoredUserProfile.defaults();
+        return UserProfileEntity.builder()
+                .userId(userId)
+                .avatarUrl(profile.avatarUrl == null ? defaults.avatarUrl : profile.avatarUrl)
+                .bio(profile.bio == null ? defaults.bio : profile.bio)
+                .city(profile.city == null ? defaults.city : profile.city)
+                .favoriteGamesText(profile.favoriteGames == null ? "" : String.join("\n", profile.favoriteGames))
+                .emailNotifications(profile.emailNotifications == null || profile.emailNotifications)
+                .publicProfile(profile.publicProfile == null || profile.publicProfile)
+                .updatedAt(parseUpdatedAt(profile.updatedAt))
+                .build();
+    }
+
+    private List<String> splitGames(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(raw.split("\n"))
+                .map(String::trim)
+                .filter(value -> !value.isBlank())
+                .toList();
+    }
+
+    private OffsetDateTime parseUpdatedAt(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return OffsetDateTime.now();
+        }
+        try {
+            return OffsetDateTime.parse(raw);
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.gameforum.profile;
+
+import com.example.gameforum.user.UserEntity;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// file mode: profiles live in memory, each save is one fsync'd line in a journal that is periodically folded into the snapshot
+@Component
+@ConditionalOnProperty(name = "app.profile.store", havingValue = "file")
+public class JsonFileUserProfileStore implements UserProfileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonFileUserProfileStore.class);
+    private static final String SEED_RESOURCE = "data/user-profile-data.seed.json";
+
+    private final ObjectMapper objectMapper;
+    private final Path storagePath = Path.of("data", "user-profile-data.json");
+    private final Path journalPath = Path.of("data", "user-profile-data.journal.jsonl");
+    private final int compactAfterEntries;
+
+    private final ConcurrentHashMap<String, StoredUserProfile> profiles = new ConcurrentHashMap<>();
+    // guards only the journal file: readers never take it
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private FileChannel journal;
+    private volatile int journalEntries;
+
+    public JsonFileUserProfileStore(
+            ObjectMapper objectMapper,
+            @Value("${app.profile.journal.compact-after-entries}") int compactAfterEntries
+    ) {
+        this.objectMapper = objectMapper;
+        this.compactAfterEntries = compactAfterEntries;
+        initializeStorage();
+    }
+
+    @Override
+    public Optional<StoredUserProfile> find(UserEntity user) {
+        return Optional.ofNullable(profiles.get(user.getUsername())).map(this::copy);
+    }
+
+    @Override
+    public void save(UserEntity user, StoredUserProfile profile) {
+        JournalEntry entry = new JournalEntry(user.getUsername(), copy(profile));
+        journalLock.lock();
+        try {
+            append(entry);
+            // publish after the append so the map never holds a change the journal could lose
+            profiles.put(entry.username(), entry.profile());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> findAvatarUrls() {
+        return profiles.values().stream()
+                .map(profile -> profile.avatarUrl)
+                .filter(url -> url != null && !url.isBlank())
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${app.profile.journal.compact-period-ms}")
+    public void compactIfNeeded() {
+        if (journalEntries >= compactAfterEntries) {
+            compact();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        compact();
+        journalLock.lock();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Failed to close profile journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void compact() {
+        journalLock.lock();
+        try {
+            if (journalEntries == 0) {
+                return;
+            }
+            writeSnapshot();
+            journal.truncate(0);
+            journal.force(true);
+            journalEntries = 0;
+        } catch (IOException e) {
+            // the journal is still intact, the next run retries
+            log.warn("Failed to compact profile journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void initializeStorage() {
+        try {
+            Files.createDirectories(storagePath.getParent());
+            if (!Files.exists(storagePath)) {
+                ClassPathResource seed = new ClassPathResource(SEED_RESOURCE);
+                if (seed.exists()) {
+                    try (InputStream input = seed.getInputStream()) {
+                        Files.copy(input, storagePath, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+
+            if (Files.exists(storagePath)) {
+                Map<String, StoredUserProfile> snapshot = objectMapper.readValue(storagePath.toFile(), new TypeReference<>() {
+                });
+                profiles.putAll(snapshot);
+            }
+            replayJournal();
+
+            journal = FileChannel.open(journalPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось инициализировать JSON-хранилище профилей", e);
+        }
+        compact();
+    }
+
+    private void replayJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JournalEntry entry = objectMapper.readValue(line, JournalEntry.class);
+                    profiles.put(entry.username(), entry.profile());
+                    journalEntries++;
+                } catch (IOException e) {
+                    // a torn last line after a crash: everything before it is already applied
+                    log.warn("Skipping unreadable profile journal line", e);
+                }
+            }
+        }
+    }
+
+    private void append(JournalEntry entry) {
+        try {
+            byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+            journalEntries++;
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось сохранить JSON-хранилище профилей", e);
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path temp = storagePath.resolveSibling(storagePath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] body = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(new TreeMap<>(profiles));
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, storagePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // callers mutate the profile they get back, so the shared map only ever hands out copies
+    private StoredUserProfile copy(StoredUserProfile source) {
+        StoredUserProfile profile = new StoredUserProfile();
+        profile.avatarUrl = source.avatarUrl;
+        profile.bio = source.bio;
+        profile.city = source.city;
+        profile.favoriteGames = source.favoriteGames == null ? null : new ArrayList<>(source.favoriteGames);
+        profile.emailNotifications = source.emailNotifications;
+        profile.publicProfile = source.publicProfile;
+        profile.updatedAt = source.updatedAt;
+        return profile;
+    }
+
+    record JournalEntry(String username, StoredUserProfile profile) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.gameforum.profile;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StoredUserProfile {
+    public String avatarUrl;
+    public String bio;
+    public String city;
+    public List<String> favoriteGames;
+    public Boolean emailNotifications;
+    public Boolean publicProfile;
+    public String updatedAt;
+
+    public static StoredUserProfile defaults() {
+        StoredUserProfile profile = new StoredUserProfile();
+        profile.avatarUrl = "";
+        profile.bio = "";
+        profile.city = "Не указан";
+        profile.favoriteGames = new ArrayList<>();
+        profile.emailNotifications = true;
+        profile.publicProfile = true;
+        profile.updatedAt = OffsetDateTime.now().toString();
+        return profile;
+    }
+}
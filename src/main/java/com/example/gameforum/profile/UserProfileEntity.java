@@ -0,0 +1,41 @@
+package com.example.gameforum.profile;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "user_profiles")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserProfileEntity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "avatar_url", nullable = false, columnDefinition = "text")
+    private String avatarUrl;
+
+    @Column(nullable = false, length = 1200)
+    private String bio;
+
+    @Column(nullable = false, length = 80)
+    private String city;
+
+    @Column(name = "favorite_games_text", nullable = false, columnDefinition = "text")
+    private String favoriteGamesText;
+
+    @Column(name = "email_notifications", nullable = false)
+    private Boolean emailNotifications;
+
+    @Column(name = "public_profile", nullable = false)
+    private Boolean publicProfile;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,101 @@
+package com.example.gameforum.profile;
+
+import com.example.gameforum.common.StoredFileRepository;
+import com.example.gameforum.common.UploadReferences;
+import com.example.gameforum.user.UserEntity;
+import com.example.gameforum.user.UserRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+// one-time move of data/user-profile-data.json into user_profiles; the file is renamed once imported
+@Component
+@ConditionalOnProperty(name = "app.profile.store", havingValue = "db", matchIfMissing = true)
+public class UserProfileJsonImporter implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProfileJsonImporter.class);
+    private static final Path LEGACY_STORE = Path.of("data", "user-profile-data.json");
+    private static final Path IMPORTED_STORE = Path.of("data", "user-profile-data.json.imported");
+    private static final Path UPLOADS_ROOT = Path.of("data", "uploads").toAbsolutePath().normalize();
+    private static final String UPLOADS_URL_PREFIX = "/uploads/";
+
+    private final UserRepository users;
+    private final JpaUserProfileStore store;
+    private final ObjectMapper objectMapper;
+    private final StoredFileRepository files;
+    private final UploadReferences uploadReferences;
+    private final TransactionTemplate transactions;
+
+    public UserProfileJsonImporter(
+            UserRepository users,
+            JpaUserProfileStore store,
+            ObjectMapper objectMapper,
+            StoredFileRepository files,
+            UploadReferences uploadReferences,
+            TransactionTemplate transactions
+    ) {
+        this.users = users;
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.files = files;
+        this.uploadReferences = uploadReferences;
+        this.transactions = transactions;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!Files.exists(LEGACY_STORE)) {
+            return;
+        }
+
+        Map<String, StoredUserProfile> legacy = objectMapper.readValue(LEGACY_STORE.toFile(), new TypeReference<>() {
+        });
+        int imported = 0;
+        for (Map.Entry<String, StoredUserProfile> entry : legacy.entrySet()) {
+            UserEntity user = users.findByUsername(entry.getKey()).orElse(null);
+            if (user == null || store.exists(user.getId())) {
+                continue;
+            }
+            StoredUserProfile profile = entry.getValue();
+            transactions.executeWithoutResult(status -> {
+                store.save(user, profile);
+                retainAvatar(profile.avatarUrl);
+            });
+            imported++;
+        }
+
+        Files.move(LEGACY_STORE, IMPORTED_STORE, StandardCopyOption.REPLACE_EXISTING);
+        log.info("Imported {} user profiles from {}", imported, LEGACY_STORE);
+    }
+
+    // the V17 backfill ran before these profiles reached user_profiles, so their avatars have no reference yet
+    private void retainAvatar(String avatarUrl) {
+        if (avatarUrl == null || !avatarUrl.startsWith(UPLOADS_URL_PREFIX)) {
+            return;
+        }
+        Path file = UPLOADS_ROOT.resolve(avatarUrl.substring(UPLOADS_URL_PREFIX.length())).normalize();
+        if (!file.startsWith(UPLOADS_ROOT) || !Files.isRegularFile(file)) {
+            log.warn("Avatar {} of an imported profile is missing on disk", avatarUrl);
+            return;
+        }
+        try {
+            files.registerIfAbsent(avatarUrl, Files.size(file));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + file, e);
+        }
+        uploadReferences.retain(List.of(avatarUrl));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.gameforum.profile;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface UserProfileRepository extends JpaRepository<UserProfileEntity, Long> {
+
+    @Query("select p.avatarUrl from UserProfileEntity p where p.avatarUrl <> ''")
+    List<String> findAvatarUrls();
+}
@@ -1,24 +1,22 @@
 package com.example.gameforum.profile;
 
+import com.example.gameforum.auth.PasswordHasher;
+import com.example.gameforum.common.ImageUploadPipeline;
+import com.example.gameforum.common.ImageVariants;
+import com.example.gameforum.common.UploadReferences;
 import com.example.gameforum.profile.dto.UpdateAccountSettingsRequest;
 import com.example.gameforum.profile.dto.UpdateProfileRequest;
 import com.example.gameforum.profile.dto.UserProfileView;
-import com.example.gameforum.forum.ForumMessageRepository;
-import com.example.gameforum.forum.ForumTopicRepository;
+import com.example.gameforum.forum.UserForumStatsEntity;
+import com.example.gameforum.forum.UserForumStatsRepository;
 import com.example.gameforum.user.UserEntity;
 import com.example.gameforum.user.UserRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -27,7 +25,6 @@ import java.util.regex.Pattern;
 @Service
 public class UserProfileService {
 
-    private static final String SEED_RESOURCE = "data/user-profile-data.seed.json";
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^\\s@]+@[^\\s@]+\\.[^\\s@]+$");
     private static final long MAX_AVATAR_BYTES = 5L * 1024L * 1024L;
     private static final Path AVATARS_PATH = Path.of("data", "uploads", "profile")
@@ -37,38 +34,44 @@ public class UserProfileService {
             DateTimeFormatter.ofPattern("MMMM yyyy", Locale.forLanguageTag("ru-RU"));
 
     private final UserRepository users;
-    private final ForumTopicRepository forumTopics;
-    private final ForumMessageRepository forumMessages;
-    private final PasswordEncoder encoder;
-    private final ObjectMapper objectMapper;
-    private final Path storagePath = Path.of("data", "user-profile-data.json");
+    private final UserForumStatsRepository forumStats;
+    private final PasswordHasher passwords;
+    private final UserProfileStore profiles;
+    private final ImageUploadPipeline uploads;
+    private final ImageVariants imageVariants;
+    private final UploadReferences uploadReferences;
+    private final TransactionTemplate transactions;
 
     public UserProfileService(
             UserRepository users,
-            ForumTopicRepository forumTopics,
-            ForumMessageRepository forumMessages,
-            PasswordEncoder encoder,
-            ObjectMapper objectMapper
+            UserForumStatsRepository forumStats,
+            PasswordHasher passwords,
+            UserProfileStore profiles,
+            ImageUploadPipeline uploads,
+            ImageVariants imageVariants,
+            UploadReferences uploadReferences,
+            TransactionTemplate transactions
     ) {
         this.users = users;
-        this.forumTopics = forumTopics;
-        this.forumMessages = forumMessages;
-        this.encoder = encoder;
-        this.objectMapper = objectMapper;
-        initializeStorage();
+        this.forumStats = forumStats;
+        this.passwords = passwords;
+        this.profiles = profiles;
+        this.uploads = uploads;
+        this.imageVariants = imageVariants;
+        this.uploadReferences = uploadReferences;
+        this.transactions = transactions;
     }
 
-    public synchronized UserProfileView getProfile(String username) {
+    public UserProfileView getProfile(String username) {
         UserEntity user = getRequiredUser(username);
-        Map<String, StoredUserProfile> store = readStore();
-        StoredUserProfile profile = store.getOrDefault(user.getUsername(), StoredUserProfile.defaults());
+        StoredUserProfile profile = loadProfile(user);
         return toView(user, profile);
     }
 
-    public synchronized UserProfileView updateProfile(String username, UpdateProfileRequest request) {
+    @Transactional
+    public UserProfileView updateProfile(String username, UpdateProfileRequest request) {
         UserEntity user = getRequiredUser(username);
-        Map<String, StoredUserProfile> store = readStore();
-        StoredUserProfile profile = store.getOrDefault(user.getUsername(), StoredUserProfile.defaults());
+        StoredUserProfile profile = loadProfile(user);
 
         String bio = sanitizeBio(request == null ? null : request.bio());
         String city = sanitizeCity(request == null ? null : request.city());
@@ -79,50 +82,77 @@ public class UserProfileService {
         profile.favoriteGames = favoriteGames;
         profile.updatedAt = OffsetDateTime.now().toString();
 
-        store.put(user.getUsername(), profile);
-        writeStore(store);
+        profiles.save(user, profile);
 
         return toView(user, profile);
     }
 
-    public synchronized UserProfileView updateAccountSettings(String username, UpdateAccountSettingsRequest request) {
-        UserEntity user = getRequiredUser(username);
-        Map<String, StoredUserProfile> store = readStore();
-        StoredUserProfile profile = store.getOrDefault(user.getUsername(), StoredUserProfile.defaults());
-
-        if (request != null) {
-            updateEmailIfNeeded(user, request.email());
-            updatePasswordIfNeeded(user, request.currentPassword(), request.newPassword());
+    // BCrypt may wait for the hashing pool, so it runs before the transaction takes a connection
+    public UserProfileView updateAccountSettings(String username, UpdateAccountSettingsRequest request) {
+        PasswordChange passwordChange = request == null
+                ? null
+                : preparePasswordChange(getRequiredUser(username), request.currentPassword(), request.newPassword());
+
+        return transactions.execute(status -> {
+            UserEntity user = getRequiredUser(username);
+            StoredUserProfile profile = loadProfile(user);
+
+            if (request != null) {
+                updateEmailIfNeeded(user, request.email());
+                if (passwordChange != null) {
+                    // the current password was checked against this hash; a concurrent change makes that check stale
+                    if (!passwordChange.verifiedHash().equals(user.getPasswordHash())) {
+                        throw new IllegalArgumentException("Текущий пароль введён неверно");
+                    }
+                    user.setPasswordHash(passwordChange.newHash());
+                }
 
-            if (request.emailNotifications() != null) {
-                profile.emailNotifications = request.emailNotifications();
-            }
+                if (request.emailNotifications() != null) {
+                    profile.emailNotifications = request.emailNotifications();
+                }
 
-            if (request.publicProfile() != null) {
-                profile.publicProfile = request.publicProfile();
+                if (request.publicProfile() != null) {
+                    profile.publicProfile = request.publicProfile();
+                }
             }
-        }
 
-        profile.updatedAt = OffsetDateTime.now().toString();
-        users.save(user);
-        store.put(user.getUsername(), profile);
-        writeStore(store);
+            profile.updatedAt = OffsetDateTime.now().toString();
+            users.save(user);
+            profiles.save(user, profile);
 
-        return toView(user, profile);
+            return toView(user, profile);
+        });
     }
 
-    public synchronized UserProfileView updateAvatar(String username, MultipartFile avatarFile) {
-        UserEntity user = getRequiredUser(username);
-        Map<String, StoredUserProfile> store = readStore();
-        StoredUserProfile profile = store.getOrDefault(user.getUsername(), StoredUserProfile.defaults());
+    // writing and resizing the file happens before any transaction takes a connection
+    public UserProfileView updateAvatar(String username, MultipartFile avatarFile) {
+        String avatarUrl = storeAvatar(avatarFile);
+        // the new file is pinned on its own, so a failed profile update has to give the reference back
+        transactions.executeWithoutResult(status -> uploadReferences.retain(List.of(avatarUrl)));
+        try {
+            return transactions.execute(status -> {
+                UserEntity user = getRequiredUser(username);
+                StoredUserProfile profile = loadProfile(user);
+
+                String previousAvatar = profile.avatarUrl;
+                profile.avatarUrl = avatarUrl;
+                if (previousAvatar != null) {
+                    uploadReferences.release(List.of(previousAvatar));
+                }
+                profile.updatedAt = OffsetDateTime.now().toString();
 
-        profile.avatarUrl = storeAvatar(avatarFile);
-        profile.updatedAt = OffsetDateTime.now().toString();
+                profiles.save(user, profile);
 
-        store.put(user.getUsername(), profile);
-        writeStore(store);
+                return toView(user, profile);
+            });
+        } catch (RuntimeException e) {
+            transactions.executeWithoutResult(status -> uploadReferences.release(List.of(avatarUrl)));
+            throw e;
+        }
+    }
 
-        return toView(user, profile);
+    private StoredUserProfile loadProfile(UserEntity user) {
+        return profiles.find(user).orElseGet(StoredUserProfile::defaults);
     }
 
     private void updateEmailIfNeeded(UserEntity user, String emailRaw) {
@@ -150,16 +180,16 @@ public class UserProfileService {
         user.setEmail(email);
     }
 
-    private void updatePasswordIfNeeded(UserEntity user, String currentPassword, String newPassword) {
+    private PasswordChange preparePasswordChange(UserEntity user, String currentPassword, String newPassword) {
         if (newPassword == null || newPassword.isBlank()) {
-            return;
+            return null;
         }
 
         if (currentPassword == null || currentPassword.isBlank()) {
             throw new IllegalArgumentException("Введите текущий пароль");
         }
 
-        if (!encoder.matches(currentPassword, user.getPasswordHash())) {
+        if (!passwords.matches(currentPassword, user.getPasswordHash())) {
             throw new IllegalArgumentException("Текущий пароль введён неверно");
         }
 
@@ -167,21 +197,23 @@ public class UserProfileService {
             throw new IllegalArgumentException("Новый пароль должен быть минимум 8 символов");
         }
 
-        user.setPasswordHash(encoder.encode(newPassword));
+        return new PasswordChange(user.getPasswordHash(), passwords.encode(newPassword));
     }
 
     private UserProfileView toView(UserEntity user, StoredUserProfile profile) {
         String memberSince = user.getCreatedAt() == null
                 ? "-"
                 : user.getCreatedAt().format(MEMBER_SINCE_FORMATTER);
-        long topicsCreated = forumTopics.countByAuthor(user.getUsername());
-        long commentsCreated = forumMessages.countByAuthor(user.getUsername());
+        UserForumStatsEntity stats = forumStats.findById(user.getUsername()).orElse(null);
+        long topicsCreated = stats == null ? 0 : stats.getTopicsCreated();
+        long commentsCreated = stats == null ? 0 : stats.getCommentsCreated();
 
         return new UserProfileView(
                 user.getUsername(),
                 user.getEmail(),
                 user.getRole() == null ? "USER" : user.getRole().name(),
                 Optional.ofNullable(profile.avatarUrl).orElse(""),
+                imageVariants.variantsFor(profile.avatarUrl),
                 Optional.ofNullable(profile.bio).orElse(""),
                 Optional.ofNullable(profile.city).orElse("Не указан"),
                 List.copyOf(Optional.ofNullable(profile.favoriteGames).orElse(List.of())),
@@ -235,112 +267,13 @@ public class UserProfileService {
     }
 
     private String storeAvatar(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            throw new IllegalArgumentException("Файл не выбран");
-        }
-        if (file.getSize() > MAX_AVATAR_BYTES) {
-            throw new IllegalArgumentException("Файл слишком большой (максимум 5 MB)");
+        ImageUploadPipeline.StoredUpload upload = uploads.store(file, AVATARS_PATH, "/uploads/profile/", MAX_AVATAR_BYTES);
+        if (upload.created()) {
+            imageVariants.generate(upload.url());
         }
-
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
-            throw new IllegalArgumentException("Разрешены только изображения");
-        }
-
-        String extension = resolveImageExtension(file.getOriginalFilename(), contentType);
-        String fileName = UUID.randomUUID().toString().replace("-", "") + extension;
-
-        try {
-            Files.createDirectories(AVATARS_PATH);
-            Path target = AVATARS_PATH.resolve(fileName).normalize();
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new IllegalStateException("Не удалось сохранить аватар", e);
-        }
-
-        return "/uploads/profile/" + fileName;
+        return upload.url();
     }
 
-    private String resolveImageExtension(String originalFilename, String contentType) {
-        if (originalFilename != null) {
-            int dot = originalFilename.lastIndexOf('.');
-            if (dot >= 0 && dot < originalFilename.length() - 1) {
-                String ext = originalFilename.substring(dot).toLowerCase(Locale.ROOT);
-                if (ext.matches("\\.(jpg|jpeg|png|gif|webp|bmp)")) {
-                    return ext;
-                }
-            }
-        }
-
-        return switch (contentType.toLowerCase(Locale.ROOT)) {
-            case "image/jpeg", "image/jpg" -> ".jpg";
-            case "image/png" -> ".png";
-            case "image/gif" -> ".gif";
-            case "image/webp" -> ".webp";
-            case "image/bmp" -> ".bmp";
-            default -> ".jpg";
-        };
-    }
-
-    private void initializeStorage() {
-        try {
-            Files.createDirectories(storagePath.getParent());
-            if (Files.exists(storagePath)) {
-                return;
-            }
-
-            ClassPathResource seed = new ClassPathResource(SEED_RESOURCE);
-            if (seed.exists()) {
-                try (InputStream input = seed.getInputStream()) {
-                    Files.copy(input, storagePath, StandardCopyOption.REPLACE_EXISTING);
-                }
-            } else {
-                writeStore(new LinkedHashMap<>());
-            }
-        } catch (IOException e) {
-            throw new IllegalStateException("Не удалось инициализировать JSON-хранилище профилей", e);
-        }
-    }
-
-    private Map<String, StoredUserProfile> readStore() {
-        try {
-            if (!Files.exists(storagePath)) {
-                return new LinkedHashMap<>();
-            }
-            return objectMapper.readValue(storagePath.toFile(), new TypeReference<>() {
-            });
-        } catch (IOException e) {
-            throw new IllegalStateException("Не удалось прочитать JSON-хранилище профилей", e);
-        }
-    }
-
-    private void writeStore(Map<String, StoredUserProfile> store) {
-        try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(storagePath.toFile(), store);
-        } catch (IOException e) {
-            throw new IllegalStateException("Не удалось сохранить JSON-хранилище профилей", e);
-        }
-    }
-
-    public static class StoredUserProfile {
-        public String avatarUrl;
-        public String bio;
-        public String city;
-        public List<String> favoriteGames;
-        public Boolean emailNotifications;
-        public Boolean publicProfile;
-        public String updatedAt;
-
-        public static StoredUserProfile defaults() {
-            StoredUserProfile profile = new StoredUserProfile();
-            profile.avatarUrl = "";
-            profile.bio = "";
-            profile.city = "Не указан";
-            profile.favoriteGames = new ArrayList<>();
-            profile.emailNotifications = true;
-            profile.publicProfile = true;
-            profile.updatedAt = OffsetDateTime.now().toString();
-            return profile;
-        }
+    private record PasswordChange(String verifiedHash, String newHash) {
     }
 }
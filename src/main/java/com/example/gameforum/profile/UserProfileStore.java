@@ -0,0 +1,12 @@
+package com.example.gameforum.profile;
+
+import com.example.gameforum.user.UserEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserProfileStore {
+    Optional<StoredUserProfile> find(UserEntity user);
+    void save(UserEntity user, StoredUserProfile profile);
+    List<String> findAvatarUrls();
+}
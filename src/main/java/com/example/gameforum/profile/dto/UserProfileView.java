@@ -1,5 +1,7 @@
 package com.example.gameforum.profile.dto;
 
+import com.example.gameforum.common.ImageVariantView;
+
 import java.util.List;
 
 public record UserProfileView(
@@ -7,6 +9,7 @@ public record UserProfileView(
         String email,
         String role,
         String avatarUrl,
+        List<ImageVariantView> avatarVariants,
         String bio,
         String city,
         List<String> favoriteGames,
@@ -0,0 +1,18 @@
+ALTER TABLE forum_messages
+    ADD COLUMN IF NOT EXISTS quoted_author  VARCHAR(80),
+    ADD COLUMN IF NOT EXISTS quoted_preview VARCHAR(180);
+
+-- backfill snapshots for existing quotes (same rules as ForumStorageService.buildQuotePreview)
+UPDATE forum_messages m
+SET quoted_author  = q.author,
+    quoted_preview = CASE
+        WHEN length(q.preview) <= 180 THEN q.preview
+        ELSE left(q.preview, 177) || '...'
+    END
+FROM (
+    SELECT id,
+           author,
+           btrim(regexp_replace(regexp_replace(content, '<[^>]*>', ' ', 'g'), '\s+', ' ', 'g')) AS preview
+    FROM forum_messages
+) q
+WHERE m.quoted_message_id = q.id;
@@ -0,0 +1,3 @@
+-- composite indexes for the per-game topic listing sorts (activity is covered by idx_forum_topics_game_last_activity)
+CREATE INDEX IF NOT EXISTS idx_forum_topics_game_replies ON forum_topics(game_id, replies DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_forum_topics_game_created ON forum_topics(game_id, created_at DESC, id DESC);
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS forum_message_reactions (
+  id         BIGSERIAL PRIMARY KEY,
+  message_id BIGINT      NOT NULL REFERENCES forum_messages(id) ON DELETE CASCADE,
+  user_id    BIGINT      NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  kind       VARCHAR(10) NOT NULL CHECK (kind IN ('LIKE', 'DISLIKE')),
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  UNIQUE (message_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_forum_message_reactions_user ON forum_message_reactions(user_id);
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS user_profiles (
+  user_id             BIGINT        PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+  avatar_url          TEXT          NOT NULL DEFAULT '',
+  bio                 VARCHAR(1200) NOT NULL DEFAULT '',
+  city                VARCHAR(80)   NOT NULL DEFAULT 'Не указан',
+  favorite_games_text TEXT          NOT NULL DEFAULT '',
+  email_notifications BOOLEAN       NOT NULL DEFAULT TRUE,
+  public_profile      BOOLEAN       NOT NULL DEFAULT TRUE,
+  updated_at          TIMESTAMPTZ   NOT NULL DEFAULT now()
+);
@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS user_forum_stats (
+  author           VARCHAR(80) PRIMARY KEY,
+  topics_created   INTEGER     NOT NULL DEFAULT 0,
+  comments_created INTEGER     NOT NULL DEFAULT 0,
+  updated_at       TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- the reconciliation job deletes rows for authors without any topics or messages left
+CREATE INDEX IF NOT EXISTS idx_forum_topics_author ON forum_topics(author);
+CREATE INDEX IF NOT EXISTS idx_forum_messages_author ON forum_messages(author);
+
+INSERT INTO user_forum_stats (author, topics_created, comments_created)
+SELECT author, SUM(topics), SUM(comments)
+FROM (
+  SELECT author, COUNT(*) AS topics, 0 AS comments FROM forum_topics GROUP BY author
+  UNION ALL
+  SELECT author, 0, COUNT(*) FROM forum_messages GROUP BY author
+) counts
+GROUP BY author
+ON CONFLICT (author) DO NOTHING;
@@ -0,0 +1,22 @@
+-- uploads are named by the SHA-256 of their bytes; ref_count = messages and profiles pointing at the file
+CREATE TABLE IF NOT EXISTS stored_files (
+  url                VARCHAR(255) PRIMARY KEY,
+  size_bytes         BIGINT,
+  ref_count          INTEGER      NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+  created_at         TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  last_referenced_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_stored_files_unreferenced ON stored_files(created_at) WHERE ref_count = 0;
+
+-- files uploaded before content addressing keep their names; only their references are counted
+INSERT INTO stored_files (url, ref_count, last_referenced_at)
+SELECT url, COUNT(*), now()
+FROM (
+  SELECT unnest(string_to_array(image_urls_text, E'\n')) AS url FROM forum_messages
+  UNION ALL
+  SELECT avatar_url FROM user_profiles
+) refs
+WHERE url LIKE '/uploads/%'
+GROUP BY url
+ON CONFLICT (url) DO NOTHING;
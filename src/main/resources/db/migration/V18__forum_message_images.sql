@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS forum_message_images (
+  id         BIGSERIAL PRIMARY KEY,
+  message_id BIGINT       NOT NULL REFERENCES forum_messages(id) ON DELETE CASCADE,
+  position   INTEGER      NOT NULL,
+  url        VARCHAR(500) NOT NULL,
+  width      INTEGER,
+  height     INTEGER,
+  UNIQUE (message_id, position)
+);
+
+-- "which messages use this upload": reference checks and the upload collector
+CREATE INDEX IF NOT EXISTS idx_forum_message_images_url ON forum_message_images(url);
+
+INSERT INTO forum_message_images (message_id, position, url)
+SELECT m.id, u.ord - 1, trim(u.url)
+FROM forum_messages m
+CROSS JOIN LATERAL unnest(string_to_array(m.image_urls_text, E'\n')) WITH ORDINALITY AS u(url, ord)
+WHERE trim(u.url) <> ''
+ON CONFLICT (message_id, position) DO NOTHING;
+
+ALTER TABLE forum_messages DROP COLUMN IF EXISTS image_urls_text;
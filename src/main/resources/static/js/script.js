@@ -131,6 +131,7 @@ function initializeScrollTop() {
 
 function resetClientAuthState() {
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('isLoggedIn');
     localStorage.removeItem('username');
 }
@@ -292,6 +293,16 @@ function performClientLogout(event) {
         event.preventDefault();
     }
 
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+        fetch('/api/auth/logout', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ refreshToken }),
+            keepalive: true
+        }).catch(() => {});
+    }
+
     resetClientAuthState();
     setHeaderGuestState();
     updateHeaderLayout();
@@ -321,6 +332,28 @@ function bindLogoutButtons() {
     });
 }
 
+// меняет refresh-токен на новую пару без повторного ввода пароля
+async function refreshAccessToken() {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (!refreshToken) {
+        return null;
+    }
+
+    const response = await fetch('/api/auth/refresh', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ refreshToken })
+    });
+    if (!response.ok) {
+        return null;
+    }
+
+    const data = await response.json();
+    localStorage.setItem('token', data.accessToken);
+    localStorage.setItem('refreshToken', data.refreshToken);
+    return data.accessToken;
+}
+
 async function initializeHeaderAuthState() {
     const headerContainer = document.querySelector('.header-container');
     if (!headerContainer) {
@@ -335,17 +368,24 @@ async function initializeHeaderAuthState() {
     }
 
     try {
-        const response = await fetch('/api/me', {
-            headers: {
-                'Authorization': `Bearer ${token}`
+        const readMe = async (accessToken) => {
+            const response = await fetch('/api/me', {
+                headers: {
+                    'Authorization': `Bearer ${accessToken}`
+                }
+            });
+            return response.ok ? response.json() : { authenticated: false };
+        };
+
+        // истёкший access-токен сервер не принимает: пробуем обновить его один раз
+        let data = await readMe(token);
+        if (!data.authenticated) {
+            const renewed = await refreshAccessToken();
+            if (renewed) {
+                data = await readMe(renewed);
             }
-        });
-
-        if (!response.ok) {
-            throw new Error('Unauthorized');
         }
 
-        const data = await response.json();
         if (!data.authenticated) {
             throw new Error('Unauthorized');
         }
@@ -0,0 +1,71 @@
+package com.example.gameforum.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    @Test
+    void allowsABurstUpToTheLimitPerIp() {
+        LoginThrottle throttle = new LoginThrottle(3, 100);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.checkLogin("user" + i, "10.0.0.1");
+        }
+
+        assertTooManyAttempts(() -> throttle.checkLogin("user9", "10.0.0.1"));
+        assertThatCode(() -> throttle.checkLogin("user9", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void limitsOneLoginAcrossAddresses() {
+        LoginThrottle throttle = new LoginThrottle(100, 2);
+
+        throttle.checkLogin("Player", "10.0.0.1");
+        throttle.checkLogin(" player ", "10.0.0.2");
+
+        assertTooManyAttempts(() -> throttle.checkLogin("PLAYER", "10.0.0.3"));
+        assertThatCode(() -> throttle.checkLogin("other", "10.0.0.3")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void registrationSharesTheIpBucket() {
+        LoginThrottle throttle = new LoginThrottle(2, 100);
+
+        throttle.checkRegister("10.0.0.1");
+        throttle.checkLogin("player", "10.0.0.1");
+
+        assertTooManyAttempts(() -> throttle.checkRegister("10.0.0.1"));
+    }
+
+    @Test
+    void bucketRefillsOverTime() throws InterruptedException {
+        // 600 a minute is one token every 100 ms
+        LoginThrottle throttle = new LoginThrottle(600, 600);
+        int accepted = 0;
+        try {
+            while (accepted < 1000) {
+                throttle.checkRegister("10.0.0.1");
+                accepted++;
+            }
+        } catch (ResponseStatusException e) {
+            assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        assertThat(accepted).isBetween(600, 999);
+
+        Thread.sleep(250);
+
+        assertThatCode(() -> throttle.checkRegister("10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    private static void assertTooManyAttempts(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+    }
+}
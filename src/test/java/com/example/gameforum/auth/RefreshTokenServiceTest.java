@@ -0,0 +1,133 @@
+package com.example.gameforum.auth;
+
+import com.example.gameforum.auth.dto.AuthResponse;
+import com.example.gameforum.user.UserEntity;
+import com.example.gameforum.user.UserRepository;
+import com.example.gameforum.user.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private final List<RefreshTokenEntity> stored = new ArrayList<>();
+    private RefreshTokenService service;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        user = UserEntity.builder().id(7L).username("player").role(UserRole.USER).build();
+
+        RefreshTokenRepository tokens = mock(RefreshTokenRepository.class);
+        when(tokens.save(any(RefreshTokenEntity.class))).thenAnswer(call -> {
+            RefreshTokenEntity token = call.getArgument(0);
+            token.setId((long) stored.size() + 1);
+            stored.add(token);
+            return token;
+        });
+        when(tokens.findByTokenHash(anyString())).thenAnswer(call -> stored.stream()
+                .filter(token -> token.getTokenHash().equals(call.getArgument(0)))
+                .findFirst());
+        when(tokens.revoke(anyLong(), any(OffsetDateTime.class))).thenAnswer(call -> {
+            RefreshTokenEntity token = stored.get(((Long) call.getArgument(0)).intValue() - 1);
+            if (token.getRevokedAt() != null) {
+                return 0;
+            }
+            token.setRevokedAt(call.getArgument(1));
+            return 1;
+        });
+        when(tokens.revokeAllForUser(anyLong(), any(OffsetDateTime.class))).thenAnswer(call -> {
+            int revoked = 0;
+            for (RefreshTokenEntity token : stored) {
+                if (token.getUserId().equals(call.getArgument(0)) && token.getRevokedAt() == null) {
+                    token.setRevokedAt(call.getArgument(1));
+                    revoked++;
+                }
+            }
+            return revoked;
+        });
+
+        UserRepository users = mock(UserRepository.class);
+        when(users.findById(7L)).thenReturn(Optional.of(user));
+        JwtService jwt = mock(JwtService.class);
+        when(jwt.generateToken(any(), any(), any())).thenReturn("access");
+
+        service = new RefreshTokenService(tokens, users, jwt, 30, 1000);
+    }
+
+    @Test
+    void issueStoresOnlyTheHash() {
+        AuthResponse issued = service.issue(user);
+
+        assertThat(issued.refreshToken()).isNotBlank();
+        assertThat(stored).singleElement()
+                .satisfies(token -> assertThat(token.getTokenHash()).hasSize(64).isNotEqualTo(issued.refreshToken()));
+    }
+
+    @Test
+    void refreshRotatesTheToken() {
+        AuthResponse first = service.issue(user);
+
+        AuthResponse second = service.refresh(first.refreshToken());
+
+        assertThat(second.refreshToken()).isNotEqualTo(first.refreshToken());
+        assertThat(stored.get(0).getRevokedAt()).isNotNull();
+        assertThat(stored.get(1).getRevokedAt()).isNull();
+    }
+
+    @Test
+    void reusedTokenEndsEverySessionOfTheUser() {
+        AuthResponse first = service.issue(user);
+        AuthResponse other = service.issue(user);
+        AuthResponse rotated = service.refresh(first.refreshToken());
+
+        assertUnauthorized(() -> service.refresh(first.refreshToken()));
+
+        assertThat(stored).allSatisfy(token -> assertThat(token.getRevokedAt()).isNotNull());
+        assertUnauthorized(() -> service.refresh(rotated.refreshToken()));
+        assertUnauthorized(() -> service.refresh(other.refreshToken()));
+    }
+
+    @Test
+    void revokedTokenCannotBeRefreshed() {
+        AuthResponse issued = service.issue(user);
+
+        service.revoke(issued.refreshToken());
+
+        assertUnauthorized(() -> service.refresh(issued.refreshToken()));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        AuthResponse issued = service.issue(user);
+        stored.get(0).setExpiresAt(OffsetDateTime.now().minusMinutes(1));
+
+        assertUnauthorized(() -> service.refresh(issued.refreshToken()));
+        assertThat(stored).hasSize(1);
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertUnauthorized(() -> service.refresh("not-a-token"));
+    }
+
+    private static void assertUnauthorized(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED));
+    }
+}
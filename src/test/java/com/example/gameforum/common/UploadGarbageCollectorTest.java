@@ -0,0 +1,126 @@
+package com.example.gameforum.common;
+
+import com.example.gameforum.profile.UserProfileStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadGarbageCollectorTest {
+
+    @TempDir
+    Path uploads;
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final UserProfileStore profiles = mock(UserProfileStore.class);
+    private final StoredFileRepository files = mock(StoredFileRepository.class);
+    private final ImageVariants variants = mock(ImageVariants.class);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(uploads.resolve("forum"));
+        Files.createDirectories(uploads.resolve("profile"));
+        when(jdbc.queryForList(anyString(), eq(String.class), any(), any())).thenReturn(List.of());
+        when(profiles.findAvatarUrls()).thenReturn(List.of());
+    }
+
+    @Test
+    void deletesAnOldFileNothingPointsAt() throws IOException {
+        Path orphan = upload("forum/orphan.png", Duration.ofHours(2));
+
+        collector(100).run();
+
+        assertThat(orphan).doesNotExist();
+        verify(files).deleteIfCollectable(eq("/uploads/forum/orphan.png"), any(OffsetDateTime.class));
+        verify(variants).deleteVariants("/uploads/forum/orphan.png");
+    }
+
+    @Test
+    void keepsFilesMarkedByMessagesAndProfiles() throws IOException {
+        Path inMessage = upload("forum/message.png", Duration.ofHours(2));
+        Path avatar = upload("profile/avatar.png", Duration.ofHours(2));
+        when(jdbc.queryForList(anyString(), eq(String.class), any(), any()))
+                .thenReturn(List.of("/uploads/forum/message.png"));
+        when(profiles.findAvatarUrls()).thenReturn(List.of("/uploads/profile/avatar.png", "https://cdn.example/a.png"));
+
+        collector(100).run();
+
+        assertThat(inMessage).exists();
+        assertThat(avatar).exists();
+        verify(files, never()).deleteIfCollectable(anyString(), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void keepsFilesInsideTheGracePeriod() throws IOException {
+        Path fresh = upload("forum/fresh.png", Duration.ofMinutes(5));
+
+        collector(100).run();
+
+        assertThat(fresh).exists();
+        verify(files, never()).deleteIfCollectable(anyString(), any(OffsetDateTime.class));
+    }
+
+    // a reference taken after the mark phase keeps the stored_files row, and with it the file
+    @Test
+    void keepsAFileWhoseRowIsStillReferenced() throws IOException {
+        Path referenced = upload("forum/late.png", Duration.ofHours(2));
+        when(files.deleteIfCollectable(eq("/uploads/forum/late.png"), any(OffsetDateTime.class))).thenReturn(0);
+        when(files.existsById("/uploads/forum/late.png")).thenReturn(true);
+
+        collector(100).run();
+
+        assertThat(referenced).exists();
+        verify(variants, never()).deleteVariants(anyString());
+    }
+
+    @Test
+    void skipsImageVariants() throws IOException {
+        Path variant = upload("forum/orphan-320.webp", Duration.ofHours(2));
+        when(variants.isVariant(variant)).thenReturn(true);
+
+        collector(100).run();
+
+        assertThat(variant).exists();
+    }
+
+    @Test
+    void stopsAtTheDeleteLimit() throws IOException {
+        upload("forum/a.png", Duration.ofHours(2));
+        upload("forum/b.png", Duration.ofHours(2));
+        upload("forum/c.png", Duration.ofHours(2));
+
+        collector(2).run();
+
+        try (var left = Files.list(uploads.resolve("forum"))) {
+            assertThat(left.count()).isEqualTo(1);
+        }
+    }
+
+    private UploadGarbageCollector collector(int maxDeletesPerRun) {
+        return new UploadGarbageCollector(uploads, jdbc, profiles, files, variants, 1, 100, 0, maxDeletesPerRun);
+    }
+
+    private Path upload(String name, Duration age) throws IOException {
+        Path file = Files.writeString(uploads.resolve(name), name);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.gameforum.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadReferencesTest {
+
+    private final StoredFileRepository files = mock(StoredFileRepository.class);
+    private final UploadReferences references = new UploadReferences(files);
+
+    @Test
+    void countsOnlyLocalUploads() {
+        when(files.retain(anyCollection())).thenReturn(1);
+
+        references.retain(List.of("/uploads/forum/a.png", "https://cdn.example/b.png"));
+
+        verify(files).retain(Set.of("/uploads/forum/a.png"));
+    }
+
+    @Test
+    void nothingLocalTouchesNoRow() {
+        references.retain(List.of("https://cdn.example/b.png"));
+        references.release(List.of());
+
+        verify(files, never()).retain(anyCollection());
+        verify(files, never()).release(anyCollection());
+    }
+
+    // the collector already took the row: the caller's transaction has to roll back
+    @Test
+    void retainingACollectedFileFails() {
+        when(files.retain(anyCollection())).thenReturn(1);
+
+        assertThatThrownBy(() -> references.retain(List.of("/uploads/forum/a.png", "/uploads/forum/gone.png")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void replaceMovesOnlyTheChangedImages() {
+        when(files.retain(anyCollection())).thenReturn(1);
+
+        references.replace(
+                List.of("/uploads/forum/kept.png", "/uploads/forum/removed.png"),
+                List.of("/uploads/forum/kept.png", "/uploads/forum/added.png")
+        );
+
+        verify(files).retain(Set.of("/uploads/forum/added.png"));
+        verify(files).release(Set.of("/uploads/forum/removed.png"));
+    }
+
+    @Test
+    void unchangedImagesAreNotCounted() {
+        references.replace(List.of("/uploads/forum/kept.png"), List.of("/uploads/forum/kept.png"));
+
+        verify(files, never()).retain(anyCollection());
+        verify(files, never()).release(anyCollection());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.gameforum.forum;
+
+import com.example.gameforum.forum.dto.ForumTopicView;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForumCacheTest {
+
+    private final ForumCache cache = new ForumCache(new ConcurrentMapCacheManager(
+            ForumCache.TOPIC, ForumCache.GAME_TOPICS, ForumCache.GAME_TOPICS_PAGE, ForumCache.LATEST_TOPICS));
+
+    @Test
+    void evictingATopicMovesItsVersionAndItsGames() {
+        String topic = cache.topicVersion(1L);
+        String game = cache.gameVersion(2L);
+        String otherTopic = cache.topicVersion(3L);
+
+        cache.evictTopic(1L, 2L);
+
+        assertThat(cache.topicVersion(1L)).isNotEqualTo(topic);
+        assertThat(cache.gameVersion(2L)).isNotEqualTo(game);
+        assertThat(cache.topicVersion(3L)).isEqualTo(otherTopic);
+    }
+
+    @Test
+    void touchingATopicLeavesTheGameListAlone() {
+        String topic = cache.topicVersion(1L);
+        String game = cache.gameVersion(2L);
+
+        cache.touchTopic(1L);
+
+        assertThat(cache.topicVersion(1L)).isNotEqualTo(topic);
+        assertThat(cache.gameVersion(2L)).isEqualTo(game);
+    }
+
+    // versions restart from zero after a restart, the boot stamp keeps them from matching old validators
+    @Test
+    void versionsOfAnotherInstanceDoNotMatch() throws InterruptedException {
+        String before = cache.topicVersion(1L);
+        Thread.sleep(2);
+
+        ForumCache restarted = new ForumCache(new ConcurrentMapCacheManager(ForumCache.TOPIC));
+
+        assertThat(restarted.topicVersion(1L)).isNotEqualTo(before);
+    }
+
+    @Test
+    void evictionDropsTheCachedTopic() {
+        cache.topic(1L, () -> new ForumTopicView(1L, 2L, "old", "", "a", 0, 0, "", ""));
+
+        cache.evictTopic(1L, 2L);
+
+        assertThat(cache.topic(1L, () -> null)).isNull();
+    }
+}
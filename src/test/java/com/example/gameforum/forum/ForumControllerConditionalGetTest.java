@@ -0,0 +1,92 @@
+package com.example.gameforum.forum;
+
+import com.example.gameforum.forum.dto.ForumTopicView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ForumControllerConditionalGetTest {
+
+    private static final String TOPIC_ETAG = "\"t1-1700000000000-4\"";
+
+    private final ForumStorageService storage = mock(ForumStorageService.class);
+    private final ForumTopicViewCounter viewCounter = mock(ForumTopicViewCounter.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        ForumController controller = new ForumController(
+                storage,
+                mock(ForumUploadService.class),
+                viewCounter,
+                mock(ForumSseBroadcaster.class)
+        );
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+        when(storage.getTopicEtag(1L)).thenReturn(TOPIC_ETAG);
+    }
+
+    @Test
+    void messagesAnswerNotModifiedWithoutLoadingTheThread() throws Exception {
+        mvc.perform(get("/api/forum/topics/1/messages").header(HttpHeaders.IF_NONE_MATCH, TOPIC_ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, TOPIC_ETAG))
+                .andExpect(content().string(""));
+
+        verify(storage, never()).getTopicMessages(anyLong());
+    }
+
+    @Test
+    void staleValidatorGetsTheBodyAndTheCurrentEtag() throws Exception {
+        when(storage.getTopicMessages(1L)).thenReturn(List.of());
+
+        mvc.perform(get("/api/forum/topics/1/messages").header(HttpHeaders.IF_NONE_MATCH, "\"t1-1700000000000-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, TOPIC_ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    void notModifiedTopicStillCountsTheView() throws Exception {
+        mvc.perform(get("/api/forum/topics/1").header(HttpHeaders.IF_NONE_MATCH, TOPIC_ETAG))
+                .andExpect(status().isNotModified());
+
+        verify(storage, never()).getTopic(anyLong());
+        verify(viewCounter).record(1L, "127.0.0.1");
+    }
+
+    @Test
+    void missingTopicIsNotFoundAndNotCounted() throws Exception {
+        when(storage.getTopic(1L)).thenReturn(null);
+
+        mvc.perform(get("/api/forum/topics/1"))
+                .andExpect(status().isNotFound());
+
+        verify(viewCounter, never()).record(anyLong(), anyString());
+    }
+
+    @Test
+    void topicIsServedWithItsValidator() throws Exception {
+        when(storage.getTopic(1L)).thenReturn(new ForumTopicView(1L, 2L, "Patch 1.2", "", "player", 3, 10, "", ""));
+
+        mvc.perform(get("/api/forum/topics/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, TOPIC_ETAG));
+
+        verify(viewCounter).record(1L, "127.0.0.1");
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.gameforum.forum;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ForumReactionBufferTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final ForumReactionBuffer buffer = new ForumReactionBuffer(jdbc);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deltasOfOneMessageAreMergedIntoOneRowOfTheUpdate() {
+        List<Object[]> updates = new ArrayList<>();
+        when(jdbc.update(anyString(), any(Object[].class))).thenAnswer(call -> {
+            // Mockito hands the varargs over expanded, after the SQL
+            updates.add(Arrays.copyOfRange(call.getArguments(), 1, call.getArguments().length));
+            return 1;
+        });
+        buffer.record(5L, new ForumReactionBuffer.Delta(1, 0));
+        buffer.record(5L, new ForumReactionBuffer.Delta(1, -1));
+
+        assertThat(buffer.pendingFor(5L)).isEqualTo(new ForumReactionBuffer.Delta(2, -1));
+
+        buffer.flush();
+
+        assertThat(updates).singleElement().satisfies(args -> assertThat(args).containsExactly(5L, 2, -1));
+        assertThat(buffer.pendingFor(5L)).isEqualTo(ForumReactionBuffer.Delta.ZERO);
+    }
+
+    @Test
+    void failedFlushKeepsTheDeltasForTheNextOne() {
+        when(jdbc.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(1);
+        buffer.record(5L, new ForumReactionBuffer.Delta(1, 0));
+
+        buffer.flush();
+        assertThat(buffer.pendingFor(5L)).isEqualTo(new ForumReactionBuffer.Delta(1, 0));
+
+        buffer.record(5L, new ForumReactionBuffer.Delta(0, 1));
+        buffer.flush();
+
+        verify(jdbc, times(2)).update(anyString(), any(Object[].class));
+        assertThat(buffer.pendingFor(5L)).isEqualTo(ForumReactionBuffer.Delta.ZERO);
+    }
+
+    @Test
+    void reactionJoinsTheBufferOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        buffer.record(5L, new ForumReactionBuffer.Delta(1, 0));
+
+        assertThat(buffer.pendingFor(5L)).isEqualTo(ForumReactionBuffer.Delta.ZERO);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(buffer.pendingFor(5L)).isEqualTo(new ForumReactionBuffer.Delta(1, 0));
+    }
+
+    // between the UPDATE and dropping the batch from memory a read would count it twice
+    @Test
+    void readSpanningACommitIsNotConfirmed() {
+        long before = buffer.stamp();
+        List<Boolean> stableDuringCommit = new ArrayList<>();
+        when(jdbc.update(anyString(), any(Object[].class))).thenAnswer(call -> {
+            stableDuringCommit.add(buffer.unchangedSince(before));
+            stableDuringCommit.add(buffer.unchangedSince(buffer.stamp()));
+            return 1;
+        });
+        buffer.record(5L, new ForumReactionBuffer.Delta(1, 0));
+
+        assertThat(buffer.unchangedSince(before)).isTrue();
+        buffer.flush();
+
+        assertThat(stableDuringCommit).containsExactly(false, false);
+        assertThat(buffer.unchangedSince(before)).isFalse();
+        assertThat(buffer.unchangedSince(buffer.stamp())).isTrue();
+    }
+}